@@ -0,0 +1,297 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutException;
+import lombok.extern.apachecommons.CommonsLog;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.PrematureCloseException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Concurrency limiter for requests against a single remote that adapts its limit using additive increase/multiplicative
+ * decrease (AIMD). The limit grows by one for each successful request that completes while the limiter is at least
+ * half utilized and shrinks by {@link #BACKOFF_RATIO} whenever a request is dropped by the remote (throttling, gateway
+ * errors, connection resets, timeouts). Requests exceeding the current limit wait in FIFO order.
+ * <p>
+ * Successful requests additionally feed their response time into a Vegas-style latency signal: the limiter keeps a
+ * smoothed response time and a slowly drifting minimum that approximates the unloaded remote. Once the smoothed
+ * response time exceeds the minimum by {@link #LATENCY_TOLERANCE}, the remote is queueing requests and the limit
+ * stops growing and shrinks by one per round of {@code limit} completions. The drift lets the minimum follow a remote
+ * that became permanently slower.
+ * <p>
+ * The response time spans from granting the permit until the operation {@link #run(Function) marks} that the remote
+ * responded, typically when response headers arrive. It must not depend on the number of bytes transferred: a
+ * download marks before reading its body, an upload marks only if its body is small. Operations that do not mark are
+ * not sampled, so large transfers neither lower the minimum nor inflate the smoothed response time.
+ *
+ * @author Mark Paluch
+ */
+@CommonsLog
+public class AdaptiveConcurrencyLimiter extends PermitQueue<AdaptiveConcurrencyLimiter.Release> {
+
+	static final double BACKOFF_RATIO = 0.9;
+
+	static final double LATENCY_TOLERANCE = 2.0;
+
+	static final double RTT_SMOOTHING = 0.1;
+
+	static final double MIN_RTT_DRIFT = 0.01;
+
+	private final String name;
+	private final int minLimit;
+	private final int maxLimit;
+
+	private final LongAdder drops = new LongAdder();
+	private final LongSupplier nanoTime;
+
+	private int limit;
+	private int inFlight;
+
+	private double minRtt;
+	private double smoothedRtt;
+	private int samplesSinceDecrease;
+
+	public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+		this(name, initialLimit, minLimit, maxLimit, System::nanoTime);
+	}
+
+	AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, LongSupplier nanoTime) {
+
+		super(nanoTime);
+
+		Assert.isTrue(minLimit > 0, "Minimum limit must be greater than zero");
+		Assert.isTrue(maxLimit >= minLimit, "Maximum limit must be greater or equal to minimum limit");
+
+		this.name = name;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * Run {@link Mono operation} once a permit is available without sampling its response time. The permit is released
+	 * when the operation completes, fails or gets cancelled. Failures considered as {@link #isDropped(Throwable)
+	 * dropped} decrease the limit.
+	 *
+	 * @param operation the operation to run. Must be lazy as it is subscribed to only after acquiring a permit.
+	 * @return the limited operation.
+	 */
+	public <T> Mono<T> run(Mono<T> operation) {
+		return run(responded -> operation);
+	}
+
+	/**
+	 * Run an operation once a permit is available. The operation is created with a callback to invoke once the remote
+	 * responded, for example when response headers arrive; the time until the first invocation is sampled to detect
+	 * queueing at the remote. The permit is released when the operation completes, fails or gets cancelled. Failures
+	 * considered as {@link #isDropped(Throwable) dropped} decrease the limit.
+	 *
+	 * @param operation function creating the operation from the response callback. The operation is subscribed to only
+	 *          after acquiring a permit.
+	 * @return the limited operation.
+	 */
+	public <T> Mono<T> run(Function<Runnable, Mono<T>> operation) {
+
+		return Mono.defer(() -> {
+
+			AtomicLong respondedAt = new AtomicLong(-1);
+			Runnable responded = () -> respondedAt.compareAndSet(-1, nanoTime.getAsLong());
+
+			return Mono.usingWhen(acquire(1), permit -> operation.apply(responded), //
+					permit -> Mono.fromRunnable(() -> release(permit, Release.success(respondedAt.get()))), //
+					(permit, error) -> Mono.fromRunnable(() -> release(permit, Release.failure(error))), //
+					permit -> Mono.fromRunnable(() -> release(permit, Release.IGNORED)));
+		});
+	}
+
+	/**
+	 * @return the current concurrency limit.
+	 */
+	public synchronized int getLimit() {
+		return limit;
+	}
+
+	/**
+	 * @return the number of requests currently running.
+	 */
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * @return the total number of requests dropped by the remote.
+	 */
+	public long getDrops() {
+		return drops.sum();
+	}
+
+	/**
+	 * @return the smoothed response time of successful requests in milliseconds.
+	 */
+	public synchronized double getSmoothedRtt() {
+		return smoothedRtt / 1_000_000d;
+	}
+
+	/**
+	 * @return the estimated response time of the unloaded remote in milliseconds.
+	 */
+	public synchronized double getMinRtt() {
+		return minRtt / 1_000_000d;
+	}
+
+	/**
+	 * Determine whether {@link Throwable error} indicates that the remote is overloaded.
+	 *
+	 * @param error the request failure.
+	 * @return {@code true} if the request was throttled, rejected by a gateway or the connection failed.
+	 */
+	static boolean isDropped(Throwable error) {
+
+		if (error instanceof WebClientResponseException) {
+
+			int status = ((WebClientResponseException) error).getRawStatusCode();
+
+			return status == HttpStatus.TOO_MANY_REQUESTS.value() || status == HttpStatus.BAD_GATEWAY.value()
+					|| status == HttpStatus.SERVICE_UNAVAILABLE.value() || status == HttpStatus.GATEWAY_TIMEOUT.value();
+		}
+
+		Throwable cause = error;
+		while (cause != null) {
+
+			if (cause instanceof PrematureCloseException || cause instanceof ConnectTimeoutException
+					|| cause instanceof ReadTimeoutException || cause instanceof TimeoutException
+					|| cause instanceof IOException) {
+				return true;
+			}
+
+			cause = cause.getCause();
+		}
+
+		return false;
+	}
+
+	@Override
+	protected boolean tryAcquire(long amount) {
+
+		if (inFlight < limit) {
+			inFlight++;
+			return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	protected void restore(Permit permit, @Nullable Release release) {
+
+		Outcome outcome = release != null ? release.outcome : Outcome.IGNORED;
+		int previousLimit = limit;
+		boolean queueing = outcome == Outcome.SUCCESS && release.respondedAt >= 0
+				&& isQueueing(release.respondedAt - permit.getGrantedAt());
+
+		if (queueing && samplesSinceDecrease >= limit) {
+			limit = Math.max(minLimit, limit - 1);
+			samplesSinceDecrease = 0;
+		} else if (outcome == Outcome.SUCCESS && !queueing && inFlight * 2 >= limit) {
+			limit = Math.min(maxLimit, limit + 1);
+		} else if (outcome == Outcome.DROPPED) {
+			limit = Math.max(minLimit, Math.min(limit - 1, (int) (limit * BACKOFF_RATIO)));
+			drops.increment();
+		}
+
+		inFlight--;
+
+		if (limit < previousLimit && outcome == Outcome.SUCCESS && log.isDebugEnabled()) {
+			log.debug(String.format("Response time of %s rising, reducing concurrency limit from %d to %d", name,
+					previousLimit, limit));
+		}
+
+		if (limit < previousLimit && outcome == Outcome.DROPPED && log.isInfoEnabled()) {
+			log.info(String.format("Request to %s dropped, reducing concurrency limit from %d to %d", name,
+					previousLimit, limit));
+		}
+	}
+
+	/**
+	 * Sample the response time of a successful request. Must be called while holding the monitor.
+	 *
+	 * @param rtt response time in nanoseconds.
+	 * @return {@code true} if the smoothed response time exceeds the minimum by {@link #LATENCY_TOLERANCE}.
+	 */
+	private boolean isQueueing(long rtt) {
+
+		if (smoothedRtt == 0) {
+			minRtt = rtt;
+			smoothedRtt = rtt;
+		} else {
+			minRtt = Math.min(rtt, minRtt * (1 + MIN_RTT_DRIFT));
+			smoothedRtt += RTT_SMOOTHING * (rtt - smoothedRtt);
+		}
+
+		samplesSinceDecrease++;
+
+		return smoothedRtt > minRtt * LATENCY_TOLERANCE;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: limit=%d, in-flight=%d, pending=%d, drops=%d, rtt=%.1fms (min %.1fms)", name,
+				getLimit(), getInFlight(), getPending(), getDrops(), getSmoothedRtt(), getMinRtt());
+	}
+
+	enum Outcome {
+		SUCCESS, DROPPED, IGNORED
+	}
+
+	/**
+	 * Release signal carrying the outcome and the {@link System#nanoTime() nano time} at which the remote responded,
+	 * {@code -1} if not marked.
+	 */
+	static class Release {
+
+		static final Release IGNORED = new Release(Outcome.IGNORED, -1);
+
+		private final Outcome outcome;
+		private final long respondedAt;
+
+		private Release(Outcome outcome, long respondedAt) {
+			this.outcome = outcome;
+			this.respondedAt = respondedAt;
+		}
+
+		static Release success(long respondedAt) {
+			return new Release(Outcome.SUCCESS, respondedAt);
+		}
+
+		static Release failure(Throwable error) {
+			return isDropped(error) ? new Release(Outcome.DROPPED, -1) : IGNORED;
+		}
+	}
+}
@@ -21,6 +21,8 @@ import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.springframework.lang.Nullable;
+
 /**
  * Represents a deployable artifact within the scope of a module. A build artifact maps typically to one or more files
  * (the actual file, MD5 file, SHA1 file, ASC signature).
@@ -32,6 +34,7 @@ public class Artifact {
 
 	String name, sha1, md5, binaryDownloadUri;
 	ArtifactType type;
+	@Nullable String sha256;
 
 	/**
 	 * List of files that should be distributed including signatures and checksums.
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import lombok.extern.apachecommons.CommonsLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Content-addressed cache of artifact files shared across promotions. Files are keyed by their SHA-1 checksum as
+ * reported by the build info and linked into the workspace using hard links, falling back to copying if the workspace
+ * resides on a different file store. The cache is bounded by {@link ArtifactPromoterProperties.Cache#getMaxSize()};
+ * least recently used files are evicted first. Only verified content should be {@link #store(String, File) stored};
+ * entries whose content turns out to be corrupt are {@link #invalidate(String) invalidated}.
+ * <p>
+ * Recency is tracked in memory and persisted through the file access time so it survives restarts. Cached files share
+ * their inode with workspace files, so the modification time that {@link WorkspaceManifest} relies on is left
+ * untouched.
+ *
+ * @author Mark Paluch
+ */
+@Component
+@CommonsLog
+public class ArtifactCache {
+
+	private static final Pattern SHA1 = Pattern.compile("[0-9a-f]{40}");
+
+	private final @Nullable File directory;
+	private final long maxSize;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private @Nullable Map<String, Long> entries;
+	private long size;
+
+	public ArtifactCache(ArtifactPromoterProperties properties) {
+
+		this.directory = properties.getCache().getDirectory();
+		this.maxSize = properties.getCache().getMaxSize().toBytes();
+	}
+
+	/**
+	 * @return {@code true} if a cache directory is configured.
+	 */
+	public boolean isEnabled() {
+		return directory != null;
+	}
+
+	/**
+	 * Link the cached file with checksum {@code sha1} to {@code target}. Replaces {@code target} if it exists.
+	 *
+	 * @param sha1 the SHA-1 checksum of the file.
+	 * @param target the workspace file to create.
+	 * @return {@code true} if the file was found in the cache and linked to {@code target}.
+	 */
+	public synchronized boolean link(String sha1, File target) {
+
+		Path cached = getPath(sha1);
+
+		// get() marks the entry as recently used
+		if (cached == null || getEntries().get(sha1) == null) {
+			misses.increment();
+			return false;
+		}
+
+		try {
+
+			Files.deleteIfExists(target.toPath());
+			createLink(target.toPath(), cached);
+			Files.getFileAttributeView(cached, BasicFileAttributeView.class).setTimes(null,
+					FileTime.fromMillis(System.currentTimeMillis()), null);
+		} catch (NoSuchFileException e) {
+
+			// removed externally
+			size -= getEntries().remove(sha1);
+			misses.increment();
+			return false;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		hits.increment();
+		return true;
+	}
+
+	/**
+	 * Store {@code source} under its checksum {@code sha1}. The caller must have verified that the checksum of
+	 * {@code source} matches {@code sha1}. Evicts least recently used files if the cache exceeds its maximum size.
+	 *
+	 * @param sha1 the SHA-1 checksum of the file.
+	 * @param source the verified file.
+	 */
+	public synchronized void store(String sha1, File source) {
+
+		Path cached = getPath(sha1);
+
+		if (cached == null || getEntries().containsKey(sha1)) {
+			return;
+		}
+
+		try {
+
+			Files.createDirectories(cached.getParent());
+			createLink(cached, source.toPath());
+		} catch (FileAlreadyExistsException e) {
+			// stored concurrently by another process
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		long length = source.length();
+		getEntries().put(sha1, length);
+		size += length;
+
+		evict();
+	}
+
+	/**
+	 * Remove the cached file with checksum {@code sha1} because its content does not match the checksum. Workspace
+	 * files linked to it are not affected.
+	 *
+	 * @param sha1 the SHA-1 checksum of the file.
+	 */
+	public synchronized void invalidate(String sha1) {
+
+		Path cached = getPath(sha1);
+		Long length = cached != null ? getEntries().remove(sha1) : null;
+
+		if (length == null) {
+			return;
+		}
+
+		try {
+			Files.deleteIfExists(cached);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		size -= length;
+		evictions.increment();
+
+		log.warn(String.format("Evicted corrupt file %s from artifact cache", sha1));
+	}
+
+	/**
+	 * @return number of files served from the cache.
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of lookups that did not find a cached file.
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of evicted files.
+	 */
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return total size of cached files in bytes.
+	 */
+	public synchronized long getSize() {
+
+		getEntries();
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Artifact cache: hits=%d, misses=%d, evictions=%d, size=%d bytes", getHits(), getMisses(),
+				getEvictions(), getSize());
+	}
+
+	private void evict() {
+
+		Iterator<Map.Entry<String, Long>> iterator = getEntries().entrySet().iterator();
+
+		while (size > maxSize && iterator.hasNext()) {
+
+			Map.Entry<String, Long> eldest = iterator.next();
+
+			try {
+				Files.deleteIfExists(getPath(eldest.getKey()));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			size -= eldest.getValue();
+			iterator.remove();
+			evictions.increment();
+
+			if (log.isDebugEnabled()) {
+				log.debug(String.format("Evicted %s from artifact cache", eldest.getKey()));
+			}
+		}
+	}
+
+	@Nullable
+	private Path getPath(String sha1) {
+
+		if (directory == null || !SHA1.matcher(sha1).matches()) {
+			return null;
+		}
+
+		return directory.toPath().resolve(sha1.substring(0, 2)).resolve(sha1);
+	}
+
+	/**
+	 * Lazily load the cache index ordered by recency of use.
+	 */
+	private Map<String, Long> getEntries() {
+
+		if (entries != null) {
+			return entries;
+		}
+
+		Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+		if (directory != null && directory.isDirectory()) {
+
+			try (Stream<Path> files = Files.walk(directory.toPath(), 2)) {
+
+				files.filter(it -> SHA1.matcher(it.getFileName().toString()).matches())
+						.map(ArtifactCache::readAttributes).filter(it -> it.getValue().isRegularFile())
+						.sorted(Comparator.comparing(it -> it.getValue().lastAccessTime()))
+						.forEach(it -> entries.put(it.getKey().getFileName().toString(), it.getValue().size()));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		this.entries = entries;
+		this.size = entries.values().stream().mapToLong(Long::longValue).sum();
+
+		return entries;
+	}
+
+	private static Map.Entry<Path, BasicFileAttributes> readAttributes(Path path) {
+
+		try {
+			return Map.entry(path, Files.readAttributes(path, BasicFileAttributes.class));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void createLink(Path link, Path existing) throws IOException {
+
+		try {
+			Files.createLink(link, existing);
+		} catch (FileAlreadyExistsException | NoSuchFileException e) {
+			throw e;
+		} catch (UnsupportedOperationException | IOException e) {
+
+			// hard links not supported or across file stores
+			Files.copy(existing, link);
+		}
+	}
+}
@@ -16,10 +16,12 @@
 package io.spring.artifactpromoter.artifactpromoter;
 
 import java.io.File;
+import java.time.Duration;
 
 import lombok.Data;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
 /**
  * @author Mark Paluch
@@ -30,22 +32,189 @@ public class ArtifactPromoterProperties {
 
 	private File workingDirectory;
 
+	/**
+	 * File size at or above which files are memory-mapped for checksum computation instead of being read through a
+	 * buffer. Signing and signature verification always read through a buffer because BouncyCastle consumes byte
+	 * arrays, mapping would only add a copy.
+	 */
+	private DataSize mappingThreshold = DataSize.ofBytes(FileContents.DEFAULT_MAPPING_THRESHOLD);
+
 	private final Artifactory artifactory = new Artifactory();
 
 	private final Nexus nexus = new Nexus();
 
 	private final Pgp pgp = new Pgp();
 
+	private final Cache cache = new Cache();
+
+	private final Relay relay = new Relay();
+
 	@Data
 	public static class Artifactory{
 		private String username, password;
 		private String address;
+
+		/**
+		 * Compute and verify checksums while downloading artifacts instead of re-reading downloaded files.
+		 */
+		private boolean verifyChecksumsOnDownload = true;
+
+		/**
+		 * Whether to additionally verify SHA-256 checksums reported by the build info.
+		 */
+		private boolean verifySha256 = false;
+
+		/**
+		 * Skip downloading {@code .md5} and {@code .sha1} files. Checksums are computed while downloading and verified
+		 * against the build info, uploads send the checksum files from the verified build info checksums.
+		 */
+		private boolean generateChecksumFiles = false;
+
+		/**
+		 * Maximum number of artifacts to verify concurrently. Limits checksum computation only, file operations such as
+		 * cache links and flushes are not bounded by this setting.
+		 */
+		private int verificationParallelism = Runtime.getRuntime().availableProcessors();
+
+		/**
+		 * Minimum size of a partially downloaded file to resume its download with a {@code Range} request when
+		 * retrying. Smaller files are downloaded again from the start.
+		 */
+		private DataSize resumeThreshold = DataSize.ofMegabytes(1);
+
+		/**
+		 * Keep the workspace of a previous run of the same build. Artifacts recorded in the workspace manifest that are
+		 * unchanged and match the build info are not downloaded again.
+		 */
+		private boolean resume = false;
+
+		/**
+		 * Durability of downloaded files. {@link FsyncPolicy#NONE} leaves flushing to the operating system which suits
+		 * disposable workspaces, {@link FsyncPolicy#MODULE} flushes all files of a module once it is downloaded and
+		 * before its checksum files are verified.
+		 */
+		private FsyncPolicy fsync = FsyncPolicy.NONE;
+
+		/**
+		 * HTTP client settings for Artifactory.
+		 */
+		private final Http http = new Http();
 	}
 
 	@Data
 	public static class Nexus {
 		private String address = "https://oss.sonatype.org/";
 		private String username, password;
+
+		/**
+		 * Check which files already exist in the staging repository with the same size and SHA-1 checksum and upload
+		 * only missing or different files. Allows to retry a failed upload into the same staging repository.
+		 */
+		private boolean incrementalUpload = false;
+
+		/**
+		 * Upload each module as a single-component bundle archive (Nexus 2 {@code bundle_upload}) in one request
+		 * instead of one request per file. Modules must contain a POM. Nexus creates and closes a staging repository
+		 * for each bundle, so a promotion of 150 modules results in 150 staging repositories that must be released
+		 * individually. The release is not atomic and a failing module leaves the other modules staged.
+		 */
+		private boolean bundleUpload = false;
+
+		/**
+		 * Time to live of the staging profiles and repository targets fetched from Nexus and of the staging profile
+		 * selected for module coordinates ({@code groupId:artifactId:version}).
+		 */
+		private Duration stagingProfileTtl = Duration.ofMinutes(30);
+
+		/**
+		 * HTTP client settings for Nexus.
+		 */
+		private final Http http = new Http();
+	}
+
+	/**
+	 * Connection pool and event loop settings of a remote endpoint. Each endpoint uses its own resources.
+	 */
+	@Data
+	public static class Http {
+
+		/**
+		 * Maximum number of pooled connections.
+		 */
+		private int maxConnections = 32;
+
+		/**
+		 * Maximum number of requests waiting for a connection. {@code -1} for no limit.
+		 */
+		private int pendingAcquireMaxCount = -1;
+
+		/**
+		 * Maximum time to wait for a pooled connection.
+		 */
+		private Duration pendingAcquireTimeout = Duration.ofSeconds(60);
+
+		/**
+		 * Time after which idle connections are closed. Should be lower than the server keep-alive timeout.
+		 */
+		private Duration maxIdleTime = Duration.ofSeconds(20);
+
+		/**
+		 * Maximum lifetime of a connection. Connections are not retired by age if not set.
+		 */
+		private Duration maxLifeTime;
+
+		/**
+		 * Connect timeout.
+		 */
+		private Duration connectTimeout = Duration.ofSeconds(10);
+
+		/**
+		 * Maximum time to wait for response data after the request was sent, applied between consecutive reads. No
+		 * response timeout if not set.
+		 */
+		private Duration responseTimeout;
+
+		/**
+		 * Number of event loop threads.
+		 */
+		private int eventLoopThreads = Runtime.getRuntime().availableProcessors();
+
+		/**
+		 * Whether to use the native transport (epoll, kqueue) if available instead of NIO.
+		 */
+		private boolean preferNative = true;
+
+		/**
+		 * Initial number of concurrent requests. The limit adapts between {@link #minConcurrency} and
+		 * {@link #maxConnections} depending on whether the remote drops requests.
+		 */
+		private int initialConcurrency = 8;
+
+		/**
+		 * Lower bound of the adaptive concurrency limit.
+		 */
+		private int minConcurrency = 1;
+
+		/**
+		 * Maximum number of retries of a request that failed transiently (throttling, gateway errors, connection
+		 * resets, timeouts).
+		 */
+		private int maxRetries = 3;
+
+		/**
+		 * Backoff before the first retry. Doubles with each retry.
+		 */
+		private Duration minBackoff = Duration.ofSeconds(1);
+
+		/**
+		 * Upper bound of the retry backoff.
+		 */
+		private Duration maxBackoff = Duration.ofSeconds(30);
+
+		/**
+		 * Random jitter factor applied to the retry backoff, between {@code 0} and {@code 1}.
+		 */
+		private double jitter = 0.5;
 	}
 
 
@@ -53,5 +222,78 @@ public class ArtifactPromoterProperties {
 	public static class Pgp{
 		private String key, passphrase;
 		private File keyring;
+
+		/**
+		 * Public key ring to verify signatures. Public keys are taken from {@link #keyring} if not set.
+		 */
+		private File publicKeyring;
+
+		/**
+		 * Maximum number of artifacts to sign or verify concurrently.
+		 */
+		private int signingParallelism = Runtime.getRuntime().availableProcessors();
+
+		/**
+		 * Create signatures from the response body while downloading artifacts instead of re-reading downloaded files.
+		 */
+		private boolean signOnDownload = false;
+
+		/**
+		 * Verify all signatures against the public key before uploading artifacts.
+		 */
+		private boolean verifySignatures = false;
+	}
+
+	/**
+	 * Policy when to flush downloaded files to the storage device.
+	 */
+	public enum FsyncPolicy {
+
+		/**
+		 * Do not flush files explicitly.
+		 */
+		NONE,
+
+		/**
+		 * Flush all files of a module and its directory once the module is downloaded, before it is verified.
+		 */
+		MODULE
+	}
+
+	/**
+	 * Content-addressed artifact cache shared across promotions.
+	 */
+	@Data
+	public static class Cache {
+
+		/**
+		 * Cache directory. Caching is disabled if not set. Should reside on the same file store as the working
+		 * directory so that cached files can be hard-linked into the workspace.
+		 */
+		private File directory;
+
+		/**
+		 * Maximum size of the cache. Least recently used files are evicted first.
+		 */
+		private DataSize maxSize = DataSize.ofGigabytes(10);
+	}
+
+	/**
+	 * Zero-disk relay mode streaming artifacts from Artifactory directly to Nexus.
+	 */
+	@Data
+	public static class Relay {
+
+		/**
+		 * Stream artifact bodies from Artifactory into the staging repository without writing them to the working
+		 * directory. Checksums and signatures are computed while streaming. Cannot be combined with
+		 * {@link Pgp#isVerifySignatures() signature verification}.
+		 */
+		private boolean enabled = false;
+
+		/**
+		 * Budget for artifact bytes buffered in memory across all concurrent relays.
+		 */
+		private DataSize maxInFlight = DataSize.ofMegabytes(64);
 	}
 }
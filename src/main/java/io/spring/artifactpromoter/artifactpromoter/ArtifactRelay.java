@@ -0,0 +1,112 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import io.spring.artifactpromoter.artifactpromoter.artifactory.ArtifactoryClient;
+import io.spring.artifactpromoter.artifactpromoter.artifactory.StreamedArtifact;
+import io.spring.artifactpromoter.artifactpromoter.nexus.NexusClient;
+import io.spring.artifactpromoter.artifactpromoter.nexus.StagingException;
+import io.spring.artifactpromoter.artifactpromoter.nexus.StagingRepository;
+import lombok.extern.apachecommons.CommonsLog;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Relays artifacts from Artifactory into a Nexus staging repository without writing them to disk. Each artifact body
+ * is piped from the Artifactory download into the Nexus upload with backpressure so that Artifactory is read only as
+ * fast as Nexus accepts the content. Checksums and the PGP signature are computed on the way through; checksum and
+ * signature files are uploaded from memory once the artifact body is complete and its checksums were verified against
+ * the build info.
+ * <p>
+ * Memory is bounded by {@link ArtifactPromoterProperties.Relay#getMaxInFlight()}: Each relay reserves
+ * {@link #STREAM_WINDOW} bytes of the budget, the most content a single relay keeps in memory, before it starts. A
+ * checksum mismatch is detected only after the artifact was uploaded and fails the relay before its checksum files are
+ * uploaded, leaving the staging repository open.
+ *
+ * @author Mark Paluch
+ */
+@Component
+@CommonsLog
+public class ArtifactRelay {
+
+	/**
+	 * Bytes buffered by a single relay: Reactor Netty requests up to 128 buffers ahead when writing a request body and
+	 * decodes response content in chunks of up to 8 KB.
+	 */
+	static final long STREAM_WINDOW = 128 * 8 * 1024;
+
+	private final boolean enabled;
+	private final ByteBudget budget;
+	private final ArtifactoryClient artifactory;
+	private final NexusClient nexus;
+
+	public ArtifactRelay(ArtifactPromoterProperties properties, ArtifactoryClient artifactory, NexusClient nexus) {
+
+		this.enabled = properties.getRelay().isEnabled();
+		this.budget = new ByteBudget(properties.getRelay().getMaxInFlight().toBytes());
+		this.artifactory = artifactory;
+		this.nexus = nexus;
+	}
+
+	/**
+	 * @return {@code true} if relay mode is enabled. See {@link ArtifactPromoterProperties.Relay#isEnabled()}.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Relay all artifacts of {@link Modules} including their checksum and signature files into the
+	 * {@link StagingRepository}.
+	 *
+	 * @param stagingRepository
+	 * @param modules
+	 * @return
+	 */
+	public Mono<Void> relay(StagingRepository stagingRepository, Modules modules) {
+
+		return Flux.fromIterable(modules.getModules()).flatMap(module -> {
+
+			log.info(String.format("Relaying Module %s to %s...", module.getId(), stagingRepository.getRepositoryId()));
+
+			return Flux.fromIterable(module.getArtifacts())
+					.flatMap(artifact -> relay(stagingRepository, module.getId(), artifact)).then()
+					.doOnSuccess(v -> log.info(String.format("Relay of %s complete", module.getId())));
+		}).then().doOnSuccess(v -> log.info(String.format("Relay complete. %s", budget)));
+	}
+
+	private Mono<Void> relay(StagingRepository stagingRepository, GAVC gavc, Artifact artifact) {
+
+		Mono<StreamedArtifact> streamed = artifactory.stream(artifact, (contentLength, body) -> nexus
+				.upload(stagingRepository, gavc, artifact.getName(), contentLength, body));
+
+		return budget.run(STREAM_WINDOW, streamed).flatMap(it -> {
+
+			String name = artifact.getName();
+			Checksums checksums = it.getChecksums();
+
+			return Mono.when(nexus.upload(stagingRepository, gavc, name + ".md5", checksums.getMd5()),
+					nexus.upload(stagingRepository, gavc, name + ".sha1", checksums.getSha1()),
+					nexus.upload(stagingRepository, gavc, name + ".asc", it.getSignature()));
+		}).onErrorMap(WebClientResponseException.class,
+				e -> new StagingException(
+						String.format("Cannot relay %s: %s", artifact.getName(), e.getResponseBodyAsString()), e))
+				.doOnSuccess(it -> log.info(String.format("Relay %s done", artifact.getName())));
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import lombok.extern.apachecommons.CommonsLog;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.io.FileUtils;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPSignatureGenerator;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signing stage of the promotion pipeline. Creates an ASCII-armored PGP signature ({@code .asc}) for each artifact of
+ * downloaded {@link Modules}. BouncyCastle work is blocking and runs on a dedicated bounded scheduler so that signing
+ * happens in parallel across modules without blocking the caller.
+ *
+ * @author Mark Paluch
+ */
+@Component
+@CommonsLog
+public class ArtifactSigner implements DisposableBean {
+
+	private final ArtifactPromoterProperties.Pgp pgpProperties;
+	private final File workingDirectory;
+	private final boolean resume;
+	private final Scheduler signingScheduler;
+	private final PgpSigner pgpSigner;
+	private final SigningMetrics metrics = new SigningMetrics();
+
+	public ArtifactSigner(ArtifactPromoterProperties properties, PgpSigner pgpSigner) {
+
+		this.pgpProperties = properties.getPgp();
+		this.pgpSigner = pgpSigner;
+		this.workingDirectory = properties.getWorkingDirectory();
+		this.resume = properties.getArtifactory().isResume();
+		this.signingScheduler = Schedulers.newBoundedElastic(pgpProperties.getSigningParallelism(), Integer.MAX_VALUE,
+				"pgp-signing");
+	}
+
+	@Override
+	public void destroy() {
+		signingScheduler.dispose();
+	}
+
+	/**
+	 * Create signatures for all artifacts of {@link Modules}. Artifacts must be downloaded. Writes a {@code .asc} file
+	 * next to each artifact. When {@link ArtifactPromoterProperties.Artifactory#isResume() resuming}, artifacts that
+	 * have a signature and are current according to the {@link WorkspaceManifest} are not signed again.
+	 *
+	 * @param modules
+	 * @param context
+	 * @return
+	 */
+	public Mono<Void> sign(Modules modules, PromotionContext context) {
+
+		File buildDirectory = WorkspaceUtils.getContextDirectory(workingDirectory, context);
+
+		Mono<WorkspaceManifest> manifest = Mono.fromCallable(() -> WorkspaceManifest.load(buildDirectory))
+				.subscribeOn(signingScheduler);
+
+		return manifest.flatMap(workspace -> {
+
+			long start = System.nanoTime();
+			long signatures = metrics.getSignatures();
+			LongAdder kept = new LongAdder();
+
+			return Flux.fromIterable(modules.getModules()).concatMap(module -> {
+
+				File moduleDirectory = WorkspaceUtils.getModuleDirectory(buildDirectory, module);
+
+				return Flux.fromIterable(module.getArtifacts()).map(artifact -> Tuples.of(moduleDirectory, artifact));
+			}).filter(it -> {
+
+				if (resume && isSigned(it.getT1(), it.getT2(), workspace)) {
+					kept.increment();
+					return false;
+				}
+
+				return true;
+			}).flatMap(it -> Mono.fromCallable(() -> {
+
+				sign(it.getT1(), it.getT2());
+				return it;
+			}).subscribeOn(signingScheduler), pgpProperties.getSigningParallelism()).then().doFinally(signal -> {
+
+				metrics.recordElapsed(System.nanoTime() - start);
+				log.info(String.format("Signed %d artifact(s) of %s. Totals: %s", metrics.getSignatures() - signatures,
+						context.getName(), metrics));
+
+				if (resume) {
+					log.info(String.format("Kept %d signature(s) from previous run", kept.sum()));
+				}
+			});
+		});
+	}
+
+	/**
+	 * Create a {@link StreamingSignature} to sign content that is consumed incrementally, e.g. a download stream.
+	 *
+	 * @return a new {@link StreamingSignature}.
+	 */
+	public StreamingSignature createStreamingSignature() {
+		return createStreamingSignature(true);
+	}
+
+	/**
+	 * @param timed whether to record the time spent updating and generating the signature. Signing stages record
+	 *          their wall-clock time instead.
+	 */
+	private StreamingSignature createStreamingSignature(boolean timed) {
+
+		try {
+			return new StreamingSignature(pgpSigner.createSignatureGenerator(), timed);
+		} catch (PGPException e) {
+			throw new IllegalStateException("Cannot create signature generator", e);
+		}
+	}
+
+	/**
+	 * @return {@code true} if artifacts are signed from the download stream. See
+	 *         {@link ArtifactPromoterProperties.Pgp#isSignOnDownload()}.
+	 */
+	public boolean isSignOnDownload() {
+		return pgpProperties.isSignOnDownload();
+	}
+
+	/**
+	 * @return cumulative signing metrics.
+	 */
+	public SigningMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Check whether the artifact was signed by a previous run. The download removes the signature files of artifacts
+	 * that it downloads again.
+	 */
+	private static boolean isSigned(File moduleDirectory, Artifact artifact, WorkspaceManifest manifest) {
+
+		return artifact.getSha1() != null && new File(moduleDirectory, artifact.getName() + ".asc").isFile()
+				&& manifest.isCurrent(new File(moduleDirectory, artifact.getName()), artifact.getSha1());
+	}
+
+	private void sign(File moduleDirectory, Artifact artifact) throws IOException, PGPException {
+
+		File file = new File(moduleDirectory, artifact.getName());
+		StreamingSignature signature = createStreamingSignature(false);
+
+		FileContents.read(file.toPath(), signature::update);
+
+		FileUtils.writeStringToFile(new File(moduleDirectory, artifact.getName() + ".asc"), signature.generate(),
+				StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Signature that is updated with content chunks as they become available. Instances are not thread-safe and must
+	 * be updated sequentially. Signatures created for streaming record the time spent in {@link #update(ByteBuffer)}
+	 * and signature generation as their signing time, excluding the time waiting for content.
+	 */
+	public class StreamingSignature {
+
+		private final PGPSignatureGenerator generator;
+
+		private final boolean timed;
+
+		private final byte[] chunk = new byte[8192];
+
+		private long bytes;
+
+		private long nanos;
+
+		private StreamingSignature(PGPSignatureGenerator generator, boolean timed) {
+			this.generator = generator;
+			this.timed = timed;
+		}
+
+		/**
+		 * Update the signature with the remaining bytes of {@link ByteBuffer}. The buffer position is not changed.
+		 *
+		 * @param buffer
+		 */
+		public void update(ByteBuffer buffer) {
+
+			long start = timed ? System.nanoTime() : 0;
+			ByteBuffer source = buffer.duplicate();
+			bytes += source.remaining();
+
+			if (source.hasArray()) {
+				generator.update(source.array(), source.arrayOffset() + source.position(), source.remaining());
+			} else {
+
+				while (source.hasRemaining()) {
+
+					int length = Math.min(chunk.length, source.remaining());
+					source.get(chunk, 0, length);
+					generator.update(chunk, 0, length);
+				}
+			}
+
+			if (timed) {
+				nanos += System.nanoTime() - start;
+			}
+		}
+
+		/**
+		 * Update the signature with the first {@code length} bytes of {@code content}.
+		 */
+		private void update(byte[] content, int length) {
+
+			long start = timed ? System.nanoTime() : 0;
+			bytes += length;
+			generator.update(content, 0, length);
+
+			if (timed) {
+				nanos += System.nanoTime() - start;
+			}
+		}
+
+		/**
+		 * Generate the signature and write it ASCII-armored to {@code file}. The private key operation and file I/O run
+		 * on the signing scheduler.
+		 *
+		 * @param file the signature file to write.
+		 * @return
+		 */
+		public Mono<Void> write(File file) {
+
+			return armor().flatMap(signature -> Mono.fromCallable(() -> {
+
+				FileUtils.writeStringToFile(file, signature, StandardCharsets.US_ASCII);
+				return file;
+			})).then();
+		}
+
+		/**
+		 * Generate the ASCII-armored signature. The private key operation runs on the signing scheduler.
+		 *
+		 * @return the ASCII-armored signature.
+		 */
+		public Mono<String> armor() {
+			return Mono.fromCallable(this::generate).subscribeOn(signingScheduler);
+		}
+
+		private String generate() throws PGPException {
+
+			long start = System.nanoTime();
+			String signature = PgpSigner.armor(generator.generate());
+			metrics.recordSignature(bytes);
+
+			if (timed) {
+				metrics.recordElapsed(nanos + System.nanoTime() - start);
+			}
+
+			return signature;
+		}
+	}
+}
@@ -15,20 +15,20 @@
  */
 package io.spring.artifactpromoter.artifactpromoter;
 
-import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 import lombok.EqualsAndHashCode;
 
+import org.springframework.lang.Nullable;
+
 /**
  * Value object representing an artifact type.
  *
  * @author Mark Paluch
  */
-@EqualsAndHashCode
-public abstract class ArtifactType {
+@EqualsAndHashCode(of = "canonicalName")
+public final class ArtifactType {
 
 	public static final ArtifactType JAVADOC_JAR = create("javadoc-jar");
 
@@ -48,11 +48,24 @@ public abstract class ArtifactType {
 					JAR.getCanonicalName(), JAR //
 			);
 
+	private static final List<ArtifactType> KNOWN_CLASSIFIERS = List.of(JAVADOC_JAR, SOURCES_JAR, ORIGINAL_JAR);
 
 	private final String canonicalName;
 
+	private final @Nullable String classifier;
+
+	private final String extension;
+
+	private final String suffix;
+
 	private ArtifactType(String canonicalName) {
+
 		this.canonicalName = canonicalName;
+
+		int separator = canonicalName.indexOf('-');
+		this.classifier = separator == -1 ? null : canonicalName.substring(0, separator);
+		this.extension = separator == -1 ? canonicalName : canonicalName.substring(separator + 1).replace('-', '.');
+		this.suffix = (classifier == null ? "" : "-" + classifier) + "." + extension;
 	}
 
 	/**
@@ -63,23 +76,47 @@ public abstract class ArtifactType {
 		return canonicalName;
 	}
 
+	/**
+	 * Return the classifier implied by this type, e.g. {@code javadoc} for {@code javadoc-jar}.
+	 * @return the classifier or {@code null} if the type does not imply a classifier.
+	 */
+	@Nullable
+	public String getClassifier() {
+		return classifier;
+	}
+
+	/**
+	 * Return the file extension implied by this type, e.g. {@code jar} for {@code javadoc-jar}.
+	 * @return the file extension.
+	 */
+	public String getExtension() {
+		return extension;
+	}
+
 	/**
 	 * Test whether the {@link ArtifactType} matches the given {@code filename}.
 	 * @param filename the filename to test.
 	 * @return
 	 */
 	public boolean matches(String filename) {
-		return doMatch(filename.toLowerCase(Locale.ROOT));
+		return filename.regionMatches(true, filename.length() - suffix.length(), suffix, 0, suffix.length());
 	}
 
-	abstract boolean doMatch(String filename);
+	/**
+	 * Test whether the {@link ArtifactType} matches classifier and extension of a parsed {@link MavenRepositoryPath}.
+	 * @param path the parsed path to test.
+	 * @return
+	 */
+	public boolean matches(MavenRepositoryPath path) {
+		return path.classifierEquals(classifier) && path.extensionEquals(extension);
+	}
 
 	/**
 	 * Return a list of known classifiers that are special types of JARs.
 	 * @return
 	 */
 	public static List<ArtifactType> knownClassifiers() {
-		return Arrays.asList(JAVADOC_JAR, SOURCES_JAR, ORIGINAL_JAR);
+		return KNOWN_CLASSIFIERS;
 	}
 
 	/**
@@ -100,20 +137,7 @@ public abstract class ArtifactType {
 	}
 
 	private static ArtifactType create(String type) {
-
-		return new ArtifactType(type) {
-
-			@Override
-			boolean doMatch(String filename) {
-
-				if (type.contains("-")) {
-					return filename.endsWith("-" + type.replace('-', '.'));
-				}
-
-				return filename.endsWith("." + type);
-			}
-
-		};
+		return new ArtifactType(type);
 	}
 
 	@Override
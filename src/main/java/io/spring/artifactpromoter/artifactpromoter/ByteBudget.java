@@ -0,0 +1,98 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import reactor.core.publisher.Mono;
+
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Budget of bytes that may be held in memory by concurrent operations. Operations reserve a number of bytes before
+ * they start and return them once they complete. Reservations exceeding the available bytes wait in FIFO order so that
+ * large reservations are not starved by smaller ones. Reservations larger than the total budget are capped to the
+ * total budget.
+ *
+ * @author Mark Paluch
+ */
+public class ByteBudget extends PermitQueue<Void> {
+
+	private final long total;
+
+	private long available;
+
+	public ByteBudget(long total) {
+
+		super(System::nanoTime);
+
+		Assert.isTrue(total > 0, "Budget must be greater than zero");
+
+		this.total = total;
+		this.available = total;
+	}
+
+	/**
+	 * Run {@link Mono operation} once {@code bytes} are available. The bytes are returned to the budget when the
+	 * operation completes, fails or gets cancelled.
+	 *
+	 * @param bytes number of bytes to reserve.
+	 * @param operation the operation to run. Must be lazy as it is subscribed to only after the reservation.
+	 * @return the operation bounded by this budget.
+	 */
+	public <T> Mono<T> run(long bytes, Mono<T> operation) {
+
+		return Mono.usingWhen(acquire(Math.max(0, Math.min(bytes, total))), reservation -> operation, //
+				reservation -> Mono.fromRunnable(() -> release(reservation, null)), //
+				(reservation, error) -> Mono.fromRunnable(() -> release(reservation, null)), //
+				reservation -> Mono.fromRunnable(() -> release(reservation, null)));
+	}
+
+	/**
+	 * @return the total budget in bytes.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return the number of bytes not reserved.
+	 */
+	public synchronized long getAvailable() {
+		return available;
+	}
+
+	@Override
+	protected boolean tryAcquire(long bytes) {
+
+		if (available >= bytes) {
+			available -= bytes;
+			return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	protected void restore(Permit reservation, @Nullable Void signal) {
+		available += reservation.getAmount();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Byte budget: total=%d, available=%d, pending=%d", getTotal(), getAvailable(),
+				getPending());
+	}
+}
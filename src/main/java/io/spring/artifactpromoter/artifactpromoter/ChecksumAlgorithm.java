@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Checksum algorithms used to verify and distribute artifacts.
+ *
+ * @author Mark Paluch
+ */
+public enum ChecksumAlgorithm {
+
+	MD5("MD5", "md5"), SHA1("SHA-1", "sha1"), SHA256("SHA-256", "sha256"), SHA512("SHA-512", "sha512");
+
+	private final String algorithm;
+
+	private final String fileExtension;
+
+	ChecksumAlgorithm(String algorithm, String fileExtension) {
+		this.algorithm = algorithm;
+		this.fileExtension = fileExtension;
+	}
+
+	/**
+	 * Return the {@link MessageDigest} algorithm name.
+	 *
+	 * @return the {@link MessageDigest} algorithm name.
+	 */
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * Return the file extension (without the leading dot) of checksum files.
+	 *
+	 * @return the file extension of checksum files, e.g. {@code sha1}.
+	 */
+	public String getFileExtension() {
+		return fileExtension;
+	}
+
+	/**
+	 * Create a new {@link MessageDigest} for this algorithm.
+	 *
+	 * @return a new {@link MessageDigest}.
+	 */
+	public MessageDigest createDigest() {
+
+		try {
+			return MessageDigest.getInstance(algorithm);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(String.format("Cannot create %s digest", algorithm), e);
+		}
+	}
+}
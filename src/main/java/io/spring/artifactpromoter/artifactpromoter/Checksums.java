@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Value object capturing hex-encoded checksums computed by {@link MultiDigest}.
+ *
+ * @author Mark Paluch
+ */
+@EqualsAndHashCode
+public class Checksums {
+
+	private final Map<ChecksumAlgorithm, String> checksums;
+
+	private Checksums(Map<ChecksumAlgorithm, String> checksums) {
+		this.checksums = checksums;
+	}
+
+	/**
+	 * Create {@link Checksums} from a map of hex-encoded checksums.
+	 *
+	 * @param checksums
+	 * @return
+	 */
+	public static Checksums of(Map<ChecksumAlgorithm, String> checksums) {
+		return new Checksums(checksums.isEmpty() ? Collections.emptyMap() : new EnumMap<>(checksums));
+	}
+
+	/**
+	 * Return the hex-encoded checksum for {@link ChecksumAlgorithm}.
+	 *
+	 * @param algorithm
+	 * @return the checksum or {@code null} if the checksum was not computed.
+	 */
+	@Nullable
+	public String get(ChecksumAlgorithm algorithm) {
+		return checksums.get(algorithm);
+	}
+
+	/**
+	 * Return the hex-encoded checksum for {@link ChecksumAlgorithm}.
+	 *
+	 * @param algorithm
+	 * @return the checksum.
+	 * @throws IllegalStateException if the checksum was not computed.
+	 */
+	public String getRequired(ChecksumAlgorithm algorithm) {
+
+		String checksum = get(algorithm);
+
+		if (checksum == null) {
+			throw new IllegalStateException(String.format("No %s checksum computed", algorithm));
+		}
+
+		return checksum;
+	}
+
+	@Nullable
+	public String getMd5() {
+		return get(ChecksumAlgorithm.MD5);
+	}
+
+	@Nullable
+	public String getSha1() {
+		return get(ChecksumAlgorithm.SHA1);
+	}
+
+	@Nullable
+	public String getSha256() {
+		return get(ChecksumAlgorithm.SHA256);
+	}
+
+	@Nullable
+	public String getSha512() {
+		return get(ChecksumAlgorithm.SHA512);
+	}
+
+	@Override
+	public String toString() {
+		return checksums.toString();
+	}
+}
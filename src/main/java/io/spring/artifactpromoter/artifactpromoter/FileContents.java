@@ -0,0 +1,117 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Utility to read file content for hashing and signing in a single pass. Files smaller than the mapping threshold are
+ * read through a reusable, thread-bound direct buffer. Larger files are memory-mapped in chunks of
+ * {@link #MAPPING_CHUNK_SIZE} so that their content is passed on without read system calls and without copying it
+ * through a read buffer. Chunking bounds the address space mapped per chunk but not the mappings awaiting garbage
+ * collection. Consumers of byte arrays read through a buffer regardless of the file size as mapped content would be
+ * copied into an array anyway.
+ *
+ * @author Mark Paluch
+ */
+public final class FileContents {
+
+	/**
+	 * Default threshold at or above which files are memory-mapped. See
+	 * {@link ArtifactPromoterProperties#getMappingThreshold()}.
+	 */
+	public static final long DEFAULT_MAPPING_THRESHOLD = 16 * 1024 * 1024;
+
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	static final long MAPPING_CHUNK_SIZE = 64 * 1024 * 1024;
+
+	private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal
+			.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+	private static final ThreadLocal<byte[]> CHUNKS = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+	private FileContents() {}
+
+	/**
+	 * Read the file at {@link Path} and pass its content in order to {@code consumer}. Buffers are reused after the
+	 * consumer returns and must not be retained. Mapped chunks are not unmapped explicitly, the JDK offers no supported
+	 * API for that; their mappings are released once the garbage collector reclaims the buffers.
+	 *
+	 * @param file the file to read.
+	 * @param mappingThreshold file size in bytes at or above which the file is memory-mapped.
+	 * @param consumer consumer of the file content.
+	 * @throws IOException
+	 */
+	public static void read(Path file, long mappingThreshold, Consumer<ByteBuffer> consumer) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+			long size = channel.size();
+
+			if (size >= mappingThreshold && size > 0) {
+
+				for (long position = 0; position < size; position += MAPPING_CHUNK_SIZE) {
+					consumer.accept(channel.map(FileChannel.MapMode.READ_ONLY, position,
+							Math.min(MAPPING_CHUNK_SIZE, size - position)));
+				}
+
+				return;
+			}
+
+			ByteBuffer buffer = BUFFERS.get();
+
+			buffer.clear();
+			while (channel.read(buffer) != -1) {
+
+				buffer.flip();
+				consumer.accept(buffer);
+				buffer.clear();
+			}
+		}
+	}
+
+	/**
+	 * Read the file at {@link Path} and pass its content in order to {@code consumer} accepting byte arrays, such as
+	 * BouncyCastle signature generators. Content is read into a reusable, thread-bound array. The file is not
+	 * memory-mapped, the mapping threshold applies to {@link #read(Path, long, Consumer) buffer consumers} only.
+	 *
+	 * @param file the file to read.
+	 * @param consumer consumer of the file content and the number of valid bytes.
+	 * @throws IOException
+	 */
+	public static void read(Path file, ObjIntConsumer<byte[]> consumer) throws IOException {
+
+		byte[] chunk = CHUNKS.get();
+		ByteBuffer buffer = ByteBuffer.wrap(chunk);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+
+			buffer.clear();
+			while (channel.read(buffer) != -1) {
+
+				consumer.accept(chunk, buffer.position());
+				buffer.clear();
+			}
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+
+/**
+ * Dedicated Reactor Netty resources for a single remote endpoint. Each endpoint gets its own {@link ConnectionProvider
+ * connection pool} and {@link LoopResources event loop} so that slow transfers to one remote cannot starve connections
+ * or event loop threads of another one. The event loop uses the native transport (epoll, kqueue) if available unless
+ * {@link ArtifactPromoterProperties.Http#isPreferNative() disabled}. Requests are additionally gated by an
+ * {@link AdaptiveConcurrencyLimiter} and transient failures can be retried using the endpoint {@link #getRetry() retry
+ * policy}.
+ *
+ * @author Mark Paluch
+ */
+public class HttpClientResources implements DisposableBean {
+
+	private final ReactorResourceFactory resourceFactory;
+
+	private final ClientHttpConnector connector;
+
+	private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+	private final RetryBackoffSpec retry;
+
+	private HttpClientResources(ReactorResourceFactory resourceFactory, ClientHttpConnector connector,
+			AdaptiveConcurrencyLimiter concurrencyLimiter, RetryBackoffSpec retry) {
+		this.resourceFactory = resourceFactory;
+		this.connector = connector;
+		this.concurrencyLimiter = concurrencyLimiter;
+		this.retry = retry;
+	}
+
+	/**
+	 * Create {@link HttpClientResources} for an endpoint.
+	 *
+	 * @param name endpoint name, used to name the connection pool and event loop threads.
+	 * @param properties the endpoint HTTP settings.
+	 * @return the created resources. Must be {@link #destroy() disposed} after use.
+	 */
+	public static HttpClientResources create(String name, ArtifactPromoterProperties.Http properties) {
+
+		ReactorResourceFactory resourceFactory = new ReactorResourceFactory();
+		resourceFactory.setUseGlobalResources(false);
+		resourceFactory.setConnectionProviderSupplier(() -> {
+
+			ConnectionProvider.Builder builder = ConnectionProvider.builder(name) //
+					.maxConnections(properties.getMaxConnections()) //
+					.pendingAcquireMaxCount(properties.getPendingAcquireMaxCount()) //
+					.pendingAcquireTimeout(properties.getPendingAcquireTimeout()) //
+					.maxIdleTime(properties.getMaxIdleTime());
+
+			if (properties.getMaxLifeTime() != null) {
+				builder.maxLifeTime(properties.getMaxLifeTime());
+			}
+
+			return builder.build();
+		});
+		resourceFactory.setLoopResourcesSupplier(
+				() -> LoopResources.create(name + "-http", properties.getEventLoopThreads(), true));
+		resourceFactory.afterPropertiesSet();
+
+		// response bodies are received in pooled direct buffers that are written to files without copying
+		ClientHttpConnector connector = new ReactorClientHttpConnector(resourceFactory, httpClient -> {
+
+			HttpClient client = httpClient.runOn(resourceFactory.getLoopResources(), properties.isPreferNative())
+					.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+					.option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+							Math.toIntExact(properties.getConnectTimeout().toMillis()));
+
+			return properties.getResponseTimeout() != null ? client.responseTimeout(properties.getResponseTimeout())
+					: client;
+		});
+
+		AdaptiveConcurrencyLimiter concurrencyLimiter = new AdaptiveConcurrencyLimiter(name,
+				properties.getInitialConcurrency(), properties.getMinConcurrency(), properties.getMaxConnections());
+
+		RetryBackoffSpec retry = Retry.backoff(properties.getMaxRetries(), properties.getMinBackoff()) //
+				.maxBackoff(properties.getMaxBackoff()) //
+				.jitter(properties.getJitter()) //
+				.filter(AdaptiveConcurrencyLimiter::isDropped) //
+				.onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+		return new HttpClientResources(resourceFactory, connector, concurrencyLimiter, retry);
+	}
+
+	/**
+	 * @return the {@link ClientHttpConnector} using the endpoint resources.
+	 */
+	public ClientHttpConnector getConnector() {
+		return connector;
+	}
+
+	/**
+	 * @return the adaptive concurrency limiter for requests against the endpoint.
+	 */
+	public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+		return concurrencyLimiter;
+	}
+
+	/**
+	 * Return the retry policy for requests against the endpoint. Retries requests that were
+	 * {@link AdaptiveConcurrencyLimiter#isDropped(Throwable) dropped} by the remote using exponential backoff with
+	 * jitter. Propagates the last failure once retries are exhausted.
+	 *
+	 * @return the retry policy.
+	 */
+	public RetryBackoffSpec getRetry() {
+		return retry;
+	}
+
+	@Override
+	public void destroy() {
+		resourceFactory.destroy();
+	}
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Reusable parser for paths following the Maven repository layout
+ * ({@code group/path/artifactId/baseVersion/artifactId-version[-classifier].extension}). Parsing scans the path once
+ * and records component boundaries only, so no intermediate strings are created. Components are materialized on
+ * access or compared in place using the {@code …Equals} methods.
+ * <p>
+ * Snapshot artifacts may use a timestamped version ({@code 1.0.4-20210205.081845-33}) for the base version
+ * {@code 1.0.4-SNAPSHOT}. The group region spans from the parse offset to the artifactId directory and therefore
+ * includes any repository prefix of absolute URIs.
+ * <p>
+ * Instances are mutable and not thread-safe. A single instance can be reused for parsing multiple paths.
+ *
+ * @author Mark Paluch
+ */
+public class MavenRepositoryPath {
+
+	private static final String SNAPSHOT = "SNAPSHOT";
+
+	private String path = "";
+
+	private String baseVersionSource = "";
+
+	private int directoryEnd;
+
+	private int groupStart, groupEnd;
+
+	private int artifactIdStart, artifactIdEnd;
+
+	private int baseVersionStart, baseVersionEnd;
+
+	private int versionStart, versionEnd;
+
+	private int classifierStart, classifierEnd;
+
+	private int extensionStart, extensionEnd;
+
+	/**
+	 * Parse a full repository path.
+	 *
+	 * @param path the path to parse.
+	 * @return {@code true} if the path follows the Maven repository layout.
+	 */
+	public boolean parse(String path) {
+		return parse(path, 0);
+	}
+
+	/**
+	 * Parse a full repository path starting at {@code offset}.
+	 *
+	 * @param path the path to parse.
+	 * @param offset start of the group path.
+	 * @return {@code true} if the path follows the Maven repository layout.
+	 */
+	public boolean parse(String path, int offset) {
+
+		reset(path);
+
+		int filenameSeparator = path.lastIndexOf('/');
+		int versionSeparator = filenameSeparator > offset ? path.lastIndexOf('/', filenameSeparator - 1) : -1;
+		int artifactIdSeparator = versionSeparator > offset ? path.lastIndexOf('/', versionSeparator - 1) : -1;
+
+		if (artifactIdSeparator < offset) {
+			return false;
+		}
+
+		this.groupStart = offset;
+		this.groupEnd = artifactIdSeparator;
+		this.baseVersionSource = path;
+		this.baseVersionStart = versionSeparator + 1;
+		this.baseVersionEnd = filenameSeparator;
+		this.directoryEnd = filenameSeparator;
+
+		return parseFilename(filenameSeparator + 1, artifactIdSeparator + 1, versionSeparator);
+	}
+
+	/**
+	 * Parse a file name following the Maven naming scheme {@code artifactId-version[-classifier].extension} where
+	 * {@code artifactId} and {@code baseVersion} are known upfront. The group region is empty.
+	 *
+	 * @param filename the file name to parse.
+	 * @param artifactId the expected artifactId.
+	 * @param baseVersion the expected base version, e.g. {@code 1.0.4-SNAPSHOT}.
+	 * @return {@code true} if the file name follows the Maven naming scheme.
+	 */
+	public boolean parseFilename(String filename, String artifactId, String baseVersion) {
+
+		reset(filename);
+
+		if (!filename.startsWith(artifactId)) {
+			return false;
+		}
+
+		this.baseVersionSource = baseVersion;
+		this.baseVersionStart = 0;
+		this.baseVersionEnd = baseVersion.length();
+
+		return parseFilename(0, 0, artifactId.length());
+	}
+
+	private boolean parseFilename(int filenameStart, int artifactIdStart, int artifactIdEnd) {
+
+		int artifactIdLength = artifactIdEnd - artifactIdStart;
+		int offset = filenameStart + artifactIdLength;
+
+		if (filenameStart != artifactIdStart
+				&& !path.regionMatches(filenameStart, path, artifactIdStart, artifactIdLength)) {
+			return false;
+		}
+
+		if (offset >= path.length() || path.charAt(offset) != '-') {
+			return false;
+		}
+
+		this.artifactIdStart = filenameStart;
+		this.artifactIdEnd = offset;
+		this.versionStart = ++offset;
+		this.versionEnd = scanVersion(offset);
+
+		if (versionEnd == -1 || versionEnd == path.length()) {
+			return false;
+		}
+
+		char separator = path.charAt(versionEnd);
+
+		if (separator == '-') {
+
+			int dot = path.indexOf('.', versionEnd + 1);
+
+			if (dot == -1) {
+				return false;
+			}
+
+			this.classifierStart = versionEnd + 1;
+			this.classifierEnd = dot;
+			this.extensionStart = dot + 1;
+		} else if (separator == '.') {
+			this.extensionStart = versionEnd + 1;
+		} else {
+			return false;
+		}
+
+		this.extensionEnd = path.length();
+
+		return extensionStart < extensionEnd;
+	}
+
+	private int scanVersion(int offset) {
+
+		int baseVersionLength = baseVersionEnd - baseVersionStart;
+
+		if (path.regionMatches(offset, baseVersionSource, baseVersionStart, baseVersionLength)) {
+			return offset + baseVersionLength;
+		}
+
+		if (!isSnapshot()) {
+			return -1;
+		}
+
+		int prefixLength = baseVersionLength - SNAPSHOT.length();
+
+		if (!path.regionMatches(offset, baseVersionSource, baseVersionStart, prefixLength)) {
+			return -1;
+		}
+
+		// yyyyMMdd.HHmmss-buildNumber
+		int index = scanDigits(offset + prefixLength, 8);
+
+		if (index == -1 || index >= path.length() || path.charAt(index) != '.') {
+			return -1;
+		}
+
+		index = scanDigits(index + 1, 6);
+
+		if (index == -1 || index >= path.length() || path.charAt(index) != '-') {
+			return -1;
+		}
+
+		int buildNumberStart = ++index;
+		while (index < path.length() && Character.isDigit(path.charAt(index))) {
+			index++;
+		}
+
+		return index == buildNumberStart ? -1 : index;
+	}
+
+	private int scanDigits(int offset, int count) {
+
+		if (offset + count > path.length()) {
+			return -1;
+		}
+
+		for (int i = offset; i < offset + count; i++) {
+			if (!Character.isDigit(path.charAt(i))) {
+				return -1;
+			}
+		}
+
+		return offset + count;
+	}
+
+	private void reset(String path) {
+
+		this.path = path;
+		this.baseVersionSource = "";
+		this.directoryEnd = 0;
+		this.groupStart = this.groupEnd = 0;
+		this.artifactIdStart = this.artifactIdEnd = 0;
+		this.baseVersionStart = this.baseVersionEnd = 0;
+		this.versionStart = this.versionEnd = 0;
+		this.classifierStart = this.classifierEnd = 0;
+		this.extensionStart = this.extensionEnd = 0;
+	}
+
+	/**
+	 * @return {@code true} if the base version denotes a snapshot.
+	 */
+	public boolean isSnapshot() {
+		return baseVersionEnd - baseVersionStart > SNAPSHOT.length()
+				&& baseVersionSource.regionMatches(baseVersionEnd - SNAPSHOT.length(), SNAPSHOT, 0, SNAPSHOT.length());
+	}
+
+	/**
+	 * @return {@code true} if the file uses a timestamped snapshot version.
+	 */
+	public boolean isTimestamped() {
+
+		int baseVersionLength = baseVersionEnd - baseVersionStart;
+
+		return isSnapshot() && (versionEnd - versionStart != baseVersionLength
+				|| !path.regionMatches(versionStart, baseVersionSource, baseVersionStart, baseVersionLength));
+	}
+
+	/**
+	 * @return {@code true} if the parsed file name has a classifier.
+	 */
+	public boolean hasClassifier() {
+		return classifierEnd > classifierStart;
+	}
+
+	/**
+	 * Test whether the group region ends with {@code groupPath} (slash-separated).
+	 *
+	 * @param groupPath
+	 * @return
+	 */
+	public boolean groupEndsWith(String groupPath) {
+		return groupEnd - groupStart >= groupPath.length()
+				&& path.regionMatches(groupEnd - groupPath.length(), groupPath, 0, groupPath.length());
+	}
+
+	public boolean artifactIdEquals(String artifactId) {
+		return regionEquals(artifactIdStart, artifactIdEnd, artifactId, false);
+	}
+
+	public boolean classifierEquals(@Nullable String classifier) {
+
+		if (classifier == null) {
+			return !hasClassifier();
+		}
+
+		return regionEquals(classifierStart, classifierEnd, classifier, true);
+	}
+
+	public boolean extensionEquals(String extension) {
+		return regionEquals(extensionStart, extensionEnd, extension, true);
+	}
+
+	private boolean regionEquals(int start, int end, String other, boolean ignoreCase) {
+		return end - start == other.length() && path.regionMatches(ignoreCase, start, other, 0, other.length());
+	}
+
+	/**
+	 * @return the group path (slash-separated).
+	 */
+	public String getGroupPath() {
+		return path.substring(groupStart, groupEnd);
+	}
+
+	public String getArtifactId() {
+		return path.substring(artifactIdStart, artifactIdEnd);
+	}
+
+	/**
+	 * @return the base version, e.g. {@code 1.0.4-SNAPSHOT}.
+	 */
+	public String getBaseVersion() {
+		return baseVersionSource.substring(baseVersionStart, baseVersionEnd);
+	}
+
+	/**
+	 * @return the file version, e.g. {@code 1.0.4-20210205.081845-33}.
+	 */
+	public String getVersion() {
+		return path.substring(versionStart, versionEnd);
+	}
+
+	@Nullable
+	public String getClassifier() {
+		return hasClassifier() ? path.substring(classifierStart, classifierEnd) : null;
+	}
+
+	public String getExtension() {
+		return path.substring(extensionStart, extensionEnd);
+	}
+
+	/**
+	 * @return the directory part of the parsed path (without trailing slash).
+	 */
+	public String getDirectory() {
+		return path.substring(0, directoryEnd);
+	}
+}
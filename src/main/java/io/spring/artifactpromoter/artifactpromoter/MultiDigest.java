@@ -0,0 +1,198 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Digest engine that feeds multiple {@link MessageDigest}s from the same buffers so that content needs to be read only
+ * once to compute all of its checksums. Instances are stateful and not thread-safe.
+ *
+ * @author Mark Paluch
+ */
+public class MultiDigest {
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final ChecksumAlgorithm[] algorithms;
+
+	private final MessageDigest[] digests;
+
+	private long bytes;
+
+	private MultiDigest(ChecksumAlgorithm[] algorithms) {
+
+		this.algorithms = algorithms;
+		this.digests = new MessageDigest[algorithms.length];
+
+		for (int i = 0; i < algorithms.length; i++) {
+			this.digests[i] = algorithms[i].createDigest();
+		}
+	}
+
+	/**
+	 * Create a new {@link MultiDigest} computing checksums for the given {@link ChecksumAlgorithm algorithms}.
+	 *
+	 * @param algorithms the algorithms to use.
+	 * @return a new {@link MultiDigest}.
+	 */
+	public static MultiDigest of(ChecksumAlgorithm... algorithms) {
+
+		Assert.notEmpty(algorithms, "Checksum algorithms must not be empty");
+
+		return new MultiDigest(algorithms.clone());
+	}
+
+	/**
+	 * Compute checksums of the file at {@link Path} by reading the file once.
+	 *
+	 * @param file the file to digest.
+	 * @param algorithms the algorithms to use.
+	 * @return the computed {@link Checksums}.
+	 * @throws IOException
+	 */
+	public static Checksums compute(Path file, ChecksumAlgorithm... algorithms) throws IOException {
+		return compute(file, FileContents.DEFAULT_MAPPING_THRESHOLD, algorithms);
+	}
+
+	/**
+	 * Compute checksums of the file at {@link Path} by reading the file once. Files of at least
+	 * {@code mappingThreshold} bytes are memory-mapped.
+	 *
+	 * @param file the file to digest.
+	 * @param mappingThreshold file size in bytes at or above which the file is memory-mapped.
+	 * @param algorithms the algorithms to use.
+	 * @return the computed {@link Checksums}.
+	 * @throws IOException
+	 */
+	public static Checksums compute(Path file, long mappingThreshold, ChecksumAlgorithm... algorithms)
+			throws IOException {
+
+		MultiDigest digest = of(algorithms);
+		digest.update(file, mappingThreshold);
+
+		return digest.digest();
+	}
+
+	/**
+	 * Update all digests with the content of the file at {@link Path}. Uses a reusable, thread-bound direct buffer for
+	 * files below the {@link FileContents#DEFAULT_MAPPING_THRESHOLD default mapping threshold}.
+	 *
+	 * @param file the file to read.
+	 * @throws IOException
+	 */
+	public void update(Path file) throws IOException {
+		update(file, FileContents.DEFAULT_MAPPING_THRESHOLD);
+	}
+
+	/**
+	 * Update all digests with the content of the file at {@link Path}. See {@link FileContents#read(Path, long,
+	 * java.util.function.Consumer)}.
+	 *
+	 * @param file the file to read.
+	 * @param mappingThreshold file size in bytes at or above which the file is memory-mapped.
+	 * @throws IOException
+	 */
+	public void update(Path file, long mappingThreshold) throws IOException {
+		FileContents.read(file, mappingThreshold, buffer -> update(buffer));
+	}
+
+	/**
+	 * Update all digests with the remaining content of {@link ByteBuffer}. Consumes the buffer.
+	 *
+	 * @param buffer the buffer to read from.
+	 */
+	public void update(ByteBuffer buffer) {
+
+		int position = buffer.position();
+		int limit = buffer.limit();
+
+		for (MessageDigest digest : digests) {
+			buffer.position(position);
+			digest.update(buffer);
+		}
+
+		bytes += limit - position;
+	}
+
+	/**
+	 * Update all digests with the given bytes.
+	 *
+	 * @param bytes
+	 * @param offset
+	 * @param length
+	 */
+	public void update(byte[] bytes, int offset, int length) {
+
+		for (MessageDigest digest : digests) {
+			digest.update(bytes, offset, length);
+		}
+
+		this.bytes += length;
+	}
+
+	/**
+	 * Return the number of bytes digested so far.
+	 *
+	 * @return the number of bytes digested so far.
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+
+	/**
+	 * Complete the digest computation and return the hex-encoded {@link Checksums}. Resets the digests.
+	 *
+	 * @return the computed {@link Checksums}.
+	 */
+	public Checksums digest() {
+
+		Map<ChecksumAlgorithm, String> checksums = new EnumMap<>(ChecksumAlgorithm.class);
+
+		for (int i = 0; i < digests.length; i++) {
+			checksums.put(algorithms[i], encodeHex(digests[i].digest()));
+		}
+
+		bytes = 0;
+
+		return Checksums.of(checksums);
+	}
+
+	/**
+	 * Encode {@code bytes} into a lower-case hex string.
+	 *
+	 * @param bytes
+	 * @return
+	 */
+	public static String encodeHex(byte[] bytes) {
+
+		char[] chars = new char[bytes.length * 2];
+
+		for (int i = 0, j = 0; i < bytes.length; i++) {
+			chars[j++] = HEX[(bytes[i] & 0xF0) >>> 4];
+			chars[j++] = HEX[bytes[i] & 0x0F];
+		}
+
+		return new String(chars);
+	}
+}
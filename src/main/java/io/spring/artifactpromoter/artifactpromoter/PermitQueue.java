@@ -0,0 +1,206 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Queue of permits that are granted asynchronously in FIFO order once capacity is available. Subclasses define the
+ * capacity through {@link #tryAcquire(long)} and {@link #restore(Permit, Object)}, both called while holding the
+ * monitor of the queue. Permit state transitions are atomic so that racing cancellation, grants and releases return
+ * the acquired capacity exactly once.
+ *
+ * @param <S> type of the signal passed on release.
+ * @author Mark Paluch
+ */
+abstract class PermitQueue<S> {
+
+	private final Deque<Permit> pending = new ArrayDeque<>();
+
+	private final LongSupplier nanoTime;
+
+	PermitQueue(LongSupplier nanoTime) {
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * @return the number of permits waiting for capacity.
+	 */
+	public synchronized int getPending() {
+		return pending.size();
+	}
+
+	/**
+	 * Acquire a permit for {@code amount} of capacity. Cancelling the returned {@link Mono} withdraws a waiting permit
+	 * or releases a permit that was granted concurrently.
+	 *
+	 * @param amount the capacity to acquire.
+	 * @return the permit once granted.
+	 */
+	protected Mono<Permit> acquire(long amount) {
+
+		return Mono.create(sink -> {
+
+			Permit permit = new Permit(sink, amount);
+			sink.onCancel(() -> cancel(permit));
+
+			boolean acquired;
+
+			synchronized (this) {
+
+				acquired = pending.isEmpty() && tryAcquire(amount);
+
+				if (!acquired) {
+					pending.add(permit);
+				}
+			}
+
+			if (acquired && !permit.grant(nanoTime.getAsLong())) {
+				restoreAndGrant(permit, null);
+			}
+		});
+	}
+
+	/**
+	 * Release a granted {@link Permit} and grant waiting permits. Subsequent releases of the same permit are no-ops.
+	 *
+	 * @param permit the permit to release.
+	 * @param signal the signal to pass on to {@link #restore(Permit, Object)}.
+	 */
+	protected void release(Permit permit, @Nullable S signal) {
+
+		if (permit.release()) {
+			restoreAndGrant(permit, signal);
+		}
+	}
+
+	/**
+	 * Take {@code amount} of capacity if available. Called while holding the monitor.
+	 *
+	 * @param amount the capacity to acquire.
+	 * @return {@code true} if the capacity was taken.
+	 */
+	protected abstract boolean tryAcquire(long amount);
+
+	/**
+	 * Return the capacity of {@link Permit}. Called while holding the monitor.
+	 *
+	 * @param permit the released permit.
+	 * @param signal the release signal, {@literal null} if the permit was released without running an operation.
+	 */
+	protected abstract void restore(Permit permit, @Nullable S signal);
+
+	private void cancel(Permit permit) {
+
+		if (permit.cancel()) {
+
+			synchronized (this) {
+				pending.remove(permit);
+			}
+
+			// a waiting head of the queue may block smaller permits behind it
+			restoreAndGrant(null, null);
+			return;
+		}
+
+		// granted concurrently but not delivered
+		release(permit, null);
+	}
+
+	private void restoreAndGrant(@Nullable Permit released, @Nullable S signal) {
+
+		List<Permit> toGrant = new ArrayList<>();
+
+		synchronized (this) {
+
+			if (released != null) {
+				restore(released, signal);
+			}
+
+			while (!pending.isEmpty() && tryAcquire(pending.peek().amount)) {
+				toGrant.add(pending.poll());
+			}
+		}
+
+		long now = nanoTime.getAsLong();
+		for (Permit permit : toGrant) {
+			if (!permit.grant(now)) {
+				restoreAndGrant(permit, null);
+			}
+		}
+	}
+
+	/**
+	 * Permit for an amount of capacity.
+	 */
+	static class Permit {
+
+		private static final int WAITING = 0, GRANTED = 1, CANCELLED = 2, RELEASED = 3;
+
+		private final MonoSink<Permit> sink;
+
+		private final long amount;
+
+		private final AtomicInteger state = new AtomicInteger(WAITING);
+
+		private volatile long grantedAt;
+
+		Permit(MonoSink<Permit> sink, long amount) {
+			this.sink = sink;
+			this.amount = amount;
+		}
+
+		long getAmount() {
+			return amount;
+		}
+
+		/**
+		 * @return the {@link System#nanoTime() nano time} at which the permit was granted.
+		 */
+		long getGrantedAt() {
+			return grantedAt;
+		}
+
+		boolean grant(long now) {
+
+			if (state.compareAndSet(WAITING, GRANTED)) {
+				grantedAt = now;
+				sink.success(this);
+				return true;
+			}
+
+			return false;
+		}
+
+		boolean cancel() {
+			return state.compareAndSet(WAITING, CANCELLED);
+		}
+
+		boolean release() {
+			return state.compareAndSet(GRANTED, RELEASED);
+		}
+	}
+}
@@ -16,33 +16,22 @@
 package io.spring.artifactpromoter.artifactpromoter;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Iterator;
-import java.util.Locale;
 import java.util.function.ObjIntConsumer;
-import java.util.stream.StreamSupport;
 
-import org.apache.commons.codec.binary.Hex;
 import org.bouncycastle.bcpg.ArmoredInputStream;
-import org.bouncycastle.bcpg.ArmoredOutputStream;
 import org.bouncycastle.openpgp.PGPException;
-import org.bouncycastle.openpgp.PGPPrivateKey;
 import org.bouncycastle.openpgp.PGPPublicKeyRingCollection;
 import org.bouncycastle.openpgp.PGPSecretKey;
-import org.bouncycastle.openpgp.PGPSecretKeyRingCollection;
 import org.bouncycastle.openpgp.PGPSignature;
 import org.bouncycastle.openpgp.PGPSignatureGenerator;
 import org.bouncycastle.openpgp.PGPSignatureList;
-import org.bouncycastle.openpgp.PGPSignatureSubpacketGenerator;
 import org.bouncycastle.openpgp.PGPUtil;
 import org.bouncycastle.openpgp.jcajce.JcaPGPObjectFactory;
 import org.bouncycastle.openpgp.operator.bc.BcKeyFingerprintCalculator;
-import org.bouncycastle.openpgp.operator.bc.BcPGPContentSignerBuilder;
 import org.bouncycastle.openpgp.operator.bc.BcPGPContentVerifierBuilderProvider;
-import org.bouncycastle.openpgp.operator.jcajce.JcePBESecretKeyDecryptorBuilder;
 
 import org.springframework.util.Assert;
 
@@ -63,39 +52,14 @@ public class PgpClient {
 	 * @throws IOException
 	 * @throws PGPException
 	 */
-	@SuppressWarnings("rawtypes")
 	public static String createSignature(InputStream message, PGPSecretKey secretKey, char[] passphrase)
 			throws IOException, PGPException {
 
-		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-
-		// Unlock the private key using the password
-		PGPPrivateKey pgpPrivKey;
-		try {
-			pgpPrivKey = secretKey.extractPrivateKey(new JcePBESecretKeyDecryptorBuilder().build(passphrase));
-		} catch (PGPException e) {
-			throw new IllegalArgumentException("Cannot decrypt private key. Wrong passphrase? ", e);
-		}
-
-		PGPSignatureGenerator signer = new PGPSignatureGenerator(
-				new BcPGPContentSignerBuilder(secretKey.getPublicKey().getAlgorithm(), PGPUtil.SHA256));
-
-		signer.init(PGPSignature.BINARY_DOCUMENT, pgpPrivKey);
-
-		Iterator it = secretKey.getPublicKey().getUserIDs();
-		if (it.hasNext()) {
-			PGPSignatureSubpacketGenerator spGen = new PGPSignatureSubpacketGenerator();
-			spGen.addSignerUserID(false, (String) it.next());
-			signer.setHashedSubpackets(spGen.generate());
-		}
+		PGPSignatureGenerator signer = PgpSigner.SigningKey.unlock(secretKey, passphrase).createSignatureGenerator();
 
 		doWithStream(message, 4096, (bytes, bytesRead) -> signer.update(bytes, 0, bytesRead));
 
-		ArmoredOutputStream aos = new ArmoredOutputStream(buffer);
-		signer.generate().encode(aos);
-		aos.close();
-
-		return buffer.toString();
+		return PgpSigner.armor(signer.generate());
 	}
 
 	/**
@@ -156,25 +120,8 @@ public class PgpClient {
 	 * @throws IOException on a problem with using the input stream.
 	 * @throws PGPException if there is an issue parsing the input stream.
 	 */
-	@SuppressWarnings("rawtypes")
 	public static PGPSecretKey readSecretKey(String keyToUse, InputStream keyring) throws IOException, PGPException {
-
-		PGPSecretKeyRingCollection keyRings = loadSecretKeyRings(keyring);
-
-		return StreamSupport.stream(keyRings.spliterator(), false) //
-				.flatMap(it -> StreamSupport.stream(it.spliterator(), false)) //
-				.filter(PGPSecretKey::isSigningKey) //
-				.filter(it -> {
-
-					String fingerprint = Hex.encodeHexString(it.getPublicKey().getFingerprint());
-					return fingerprint.toLowerCase(Locale.ROOT).endsWith(keyToUse.toLowerCase(Locale.ROOT));
-				}).findFirst() //
-				.orElseThrow(
-						() -> new IllegalArgumentException(String.format("Can't find signing key %s in key ring.", keyToUse)));
-	}
-
-	private static PGPSecretKeyRingCollection loadSecretKeyRings(InputStream keyring) throws IOException, PGPException {
-		return new PGPSecretKeyRingCollection(PGPUtil.getDecoderStream(keyring), new BcKeyFingerprintCalculator());
+		return PgpSigner.SecretKeyIndex.of(keyring).getRequiredSigningKey(keyToUse);
 	}
 
 	private static PGPPublicKeyRingCollection loadPublicKeyRings(InputStream keyring) throws IOException, PGPException {
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import lombok.Value;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bouncycastle.bcpg.ArmoredOutputStream;
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPrivateKey;
+import org.bouncycastle.openpgp.PGPSecretKey;
+import org.bouncycastle.openpgp.PGPSecretKeyRing;
+import org.bouncycastle.openpgp.PGPSecretKeyRingCollection;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureGenerator;
+import org.bouncycastle.openpgp.PGPSignatureSubpacketGenerator;
+import org.bouncycastle.openpgp.PGPSignatureSubpacketVector;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.operator.bc.BcKeyFingerprintCalculator;
+import org.bouncycastle.openpgp.operator.bc.BcPGPContentSignerBuilder;
+import org.bouncycastle.openpgp.operator.jcajce.JcePBESecretKeyDecryptorBuilder;
+
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+/**
+ * Signs messages with the configured PGP key. The key ring is loaded once and the private key is unlocked once so that
+ * the passphrase derivation does not run per signature. The unlocked key is immutable and shared across threads; each
+ * signature uses its own {@link PGPSignatureGenerator}.
+ *
+ * @author Mark Paluch
+ */
+@Component
+public class PgpSigner {
+
+	private final ArtifactPromoterProperties.Pgp pgpProperties;
+
+	private volatile @Nullable SigningKey signingKey;
+
+	public PgpSigner(ArtifactPromoterProperties properties) {
+		this.pgpProperties = properties.getPgp();
+	}
+
+	/**
+	 * Create a {@link PGPSignatureGenerator} initialized for a binary document signature with the configured key. The
+	 * generator must be confined to a single thread.
+	 *
+	 * @return the initialized signature generator.
+	 * @throws PGPException
+	 */
+	public PGPSignatureGenerator createSignatureGenerator() throws PGPException {
+		return getSigningKey().createSignatureGenerator();
+	}
+
+	/**
+	 * Create an ASCII-armored PGP signature for {@link InputStream message}.
+	 *
+	 * @param message the message to sign.
+	 * @return the PGP signature block.
+	 * @throws IOException
+	 * @throws PGPException
+	 */
+	public String sign(InputStream message) throws IOException, PGPException {
+
+		PGPSignatureGenerator generator = createSignatureGenerator();
+
+		byte[] buffer = new byte[8192];
+		int bytesRead;
+		while ((bytesRead = message.read(buffer)) != -1) {
+			generator.update(buffer, 0, bytesRead);
+		}
+
+		return armor(generator.generate());
+	}
+
+	/**
+	 * Render a {@link PGPSignature} as ASCII-armored signature block.
+	 *
+	 * @param signature
+	 * @return
+	 */
+	public static String armor(PGPSignature signature) {
+
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+
+		try (ArmoredOutputStream aos = new ArmoredOutputStream(buffer)) {
+			signature.encode(aos);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return buffer.toString(StandardCharsets.US_ASCII);
+	}
+
+	private SigningKey getSigningKey() throws PGPException {
+
+		SigningKey signingKey = this.signingKey;
+
+		if (signingKey == null) {
+
+			synchronized (this) {
+
+				signingKey = this.signingKey;
+
+				if (signingKey == null) {
+
+					Assert.state(pgpProperties.getKeyring() != null, "PGP key ring must be configured");
+					Assert.state(pgpProperties.getKey() != null, "PGP key must be configured");
+					Assert.state(pgpProperties.getPassphrase() != null, "PGP passphrase must be configured");
+
+					SecretKeyIndex index;
+					try (InputStream keyring = new FileInputStream(pgpProperties.getKeyring())) {
+						index = SecretKeyIndex.of(keyring);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+
+					this.signingKey = signingKey = SigningKey.unlock(index.getRequiredSigningKey(pgpProperties.getKey()),
+							pgpProperties.getPassphrase().toCharArray());
+				}
+			}
+		}
+
+		return signingKey;
+	}
+
+	/**
+	 * Index of signing keys within a secret key ring collection. Keys are indexed by the lower-case hex suffixes of their
+	 * fingerprint that are commonly used as key identifier: short key id (8 characters), long key id (16 characters) and
+	 * the full fingerprint.
+	 */
+	static class SecretKeyIndex {
+
+		private static final int[] SUFFIX_LENGTHS = { 8, 16 };
+
+		private final Map<String, List<PGPSecretKey>> keys = new HashMap<>();
+
+		private final Map<String, PGPSecretKey> fingerprints = new LinkedHashMap<>();
+
+		private SecretKeyIndex(PGPSecretKeyRingCollection keyRings) {
+
+			for (PGPSecretKeyRing keyRing : keyRings) {
+				for (PGPSecretKey key : keyRing) {
+
+					if (!key.isSigningKey()) {
+						continue;
+					}
+
+					String fingerprint = MultiDigest.encodeHex(key.getPublicKey().getFingerprint());
+
+					if (fingerprints.putIfAbsent(fingerprint, key) != null) {
+						continue;
+					}
+
+					for (int length : SUFFIX_LENGTHS) {
+						if (fingerprint.length() > length) {
+							keys.computeIfAbsent(fingerprint.substring(fingerprint.length() - length), it -> new ArrayList<>(1))
+									.add(key);
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Load a {@link SecretKeyIndex} from a (possibly armored) secret key ring stream.
+		 *
+		 * @param keyring
+		 * @return
+		 * @throws IOException
+		 * @throws PGPException
+		 */
+		static SecretKeyIndex of(InputStream keyring) throws IOException, PGPException {
+			return new SecretKeyIndex(
+					new PGPSecretKeyRingCollection(PGPUtil.getDecoderStream(keyring), new BcKeyFingerprintCalculator()));
+		}
+
+		/**
+		 * Look up the signing key whose fingerprint ends with {@code keyToUse}.
+		 *
+		 * @param keyToUse key fingerprint or fingerprint suffix.
+		 * @return the secret key.
+		 * @throws IllegalArgumentException if no signing key or more than one signing key matches.
+		 */
+		PGPSecretKey getRequiredSigningKey(String keyToUse) {
+
+			String suffix = keyToUse.toLowerCase(Locale.ROOT);
+			PGPSecretKey key = fingerprints.get(suffix);
+
+			if (key != null) {
+				return key;
+			}
+
+			List<PGPSecretKey> candidates = keys.get(suffix);
+
+			if (candidates == null) {
+				candidates = suffix.length() == 8 || suffix.length() == 16 ? List.of()
+						: fingerprints.entrySet().stream().filter(it -> it.getKey().endsWith(suffix))
+								.map(Map.Entry::getValue).collect(Collectors.toList());
+			}
+
+			if (candidates.isEmpty()) {
+				throw new IllegalArgumentException(String.format("Can't find signing key %s in key ring.", keyToUse));
+			}
+
+			if (candidates.size() > 1) {
+				throw new IllegalArgumentException(String.format(
+						"Signing key %s is ambiguous, it matches %d keys in key ring. Use the full fingerprint.",
+						keyToUse, candidates.size()));
+			}
+
+			return candidates.get(0);
+		}
+	}
+
+	/**
+	 * An unlocked signing key along with the precomputed hashed subpackets.
+	 */
+	@Value
+	static class SigningKey {
+
+		PGPSecretKey secretKey;
+		PGPPrivateKey privateKey;
+		@Nullable PGPSignatureSubpacketVector hashedSubpackets;
+
+		/**
+		 * Unlock a {@link PGPSecretKey} using {@code passphrase}.
+		 *
+		 * @param secretKey
+		 * @param passphrase
+		 * @return
+		 * @throws IllegalArgumentException if the key cannot be decrypted.
+		 */
+		@SuppressWarnings("rawtypes")
+		static SigningKey unlock(PGPSecretKey secretKey, char[] passphrase) {
+
+			PGPPrivateKey privateKey;
+			try {
+				privateKey = secretKey.extractPrivateKey(new JcePBESecretKeyDecryptorBuilder().build(passphrase));
+			} catch (PGPException e) {
+				throw new IllegalArgumentException("Cannot decrypt private key. Wrong passphrase? ", e);
+			}
+
+			PGPSignatureSubpacketVector hashedSubpackets = null;
+			Iterator it = secretKey.getPublicKey().getUserIDs();
+			if (it.hasNext()) {
+				PGPSignatureSubpacketGenerator spGen = new PGPSignatureSubpacketGenerator();
+				spGen.addSignerUserID(false, (String) it.next());
+				hashedSubpackets = spGen.generate();
+			}
+
+			return new SigningKey(secretKey, privateKey, hashedSubpackets);
+		}
+
+		PGPSignatureGenerator createSignatureGenerator() throws PGPException {
+
+			PGPSignatureGenerator generator = new PGPSignatureGenerator(
+					new BcPGPContentSignerBuilder(secretKey.getPublicKey().getAlgorithm(), PGPUtil.SHA256));
+
+			generator.init(PGPSignature.BINARY_DOCUMENT, privateKey);
+
+			if (hashedSubpackets != null) {
+				generator.setHashedSubpackets(hashedSubpackets);
+			}
+
+			return generator;
+		}
+	}
+}
@@ -19,32 +19,59 @@ import io.spring.artifactpromoter.artifactpromoter.artifactory.ArtifactoryBuild;
 import io.spring.artifactpromoter.artifactpromoter.artifactory.ArtifactoryClient;
 import io.spring.artifactpromoter.artifactpromoter.nexus.NexusClient;
 import io.spring.artifactpromoter.artifactpromoter.nexus.StagingProfile;
+import io.spring.artifactpromoter.artifactpromoter.nexus.StagingRepository;
+import lombok.extern.apachecommons.CommonsLog;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.concurrent.Queues;
+import reactor.util.function.Tuples;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 import org.apache.commons.io.FileUtils;
 
 /**
  * @author Mark Paluch
  */
+@CommonsLog
 public class PromotionOperations {
 
 	private final File workingDirectory;
 	private final ArtifactoryClient artifactory;
+	private final ArtifactSigner signer;
+	private final SignatureVerifier signatureVerifier;
 
 	private final NexusClient nexusClient;
 
-	public PromotionOperations(File workingDirectory, ArtifactoryClient artifactory, NexusClient nexusClient) {
+	private final ArtifactRelay relay;
+
+	public PromotionOperations(File workingDirectory, ArtifactoryClient artifactory, ArtifactSigner signer,
+			SignatureVerifier signatureVerifier, NexusClient nexusClient, ArtifactRelay relay) {
 
 		this.workingDirectory = workingDirectory;
 		this.artifactory = artifactory;
+		this.signer = signer;
+		this.signatureVerifier = signatureVerifier;
 		this.nexusClient = nexusClient;
+		this.relay = relay;
 	}
 
 	/**
-	 * Promote an Artifactory build to a Nexus staging repository. Also creates PGP signatures for each artifact.
+	 * Promote an Artifactory build to a Nexus staging repository. Also creates PGP signatures for each artifact. The
+	 * workspace of a previous run is kept if the Artifactory client {@link ArtifactoryClient#isResume() resumes}. In
+	 * {@link ArtifactRelay#isEnabled() relay mode}, artifacts are streamed into the staging repository without using
+	 * the workspace; relay mode cannot verify existing signatures and is rejected if
+	 * {@link SignatureVerifier#isVerifySignatures() signature verification} is enabled. When
+	 * {@link NexusClient#isBundleUpload() uploading bundles}, each module is uploaded as a bundle and Nexus creates and
+	 * closes the staging repository for each bundle. Otherwise, modules are grouped by their {@link StagingProfile} and
+	 * each group is staged into its own staging repository concurrently.
 	 *
 	 * @param buildName
 	 * @param buildNumber
@@ -53,12 +80,17 @@ public class PromotionOperations {
 	public void promote(String buildName, int buildNumber) throws IOException {
 
 		ArtifactoryBuild context = ArtifactoryBuild.of(buildName, buildNumber);
-		FileUtils.deleteDirectory(WorkspaceUtils.getContextDirectory(workingDirectory, context));
+
+		if (relay.isEnabled() && signatureVerifier.isVerifySignatures()) {
+			throw new IllegalStateException(
+					"Relay mode cannot verify signatures. Disable either relay mode or signature verification");
+		}
+
+		if (!artifactory.isResume() && !relay.isEnabled()) {
+			FileUtils.deleteDirectory(WorkspaceUtils.getContextDirectory(workingDirectory, context));
+		}
 
 		// TODO
-		String keyId = "";
-		String keyRing = "";
-		char[] passPhrase = new char[0];
 		boolean closeStagingRepository = true;
 
 		// TODO
@@ -66,6 +98,10 @@ public class PromotionOperations {
 
 		artifactory.resolveModules(context, s -> !s.endsWith(".zip")).doOnNext(it -> {
 
+			if (relay.isEnabled()) {
+				return;
+			}
+
 			try {
 				// blocking call with exceptions
 				artifactory.prepareDirectories(it, context);
@@ -75,27 +111,120 @@ public class PromotionOperations {
 
 		}).flatMap(modules -> {
 
+			if (relay.isEnabled()) {
+				return stage(modules, closeStagingRepository, relay::relay);
+			}
+
 			Mono<Void> download = artifactory.download(modules, context);
+			Mono<Void> sign = signer.isSignOnDownload() ? Mono.empty() : signer.sign(modules, context);
+			Mono<Void> verifySignatures = signatureVerifier.isVerifySignatures()
+					? signatureVerifier.verifySignatures(modules, context)
+					: Mono.empty();
+
+			if (nexusClient.isBundleUpload()) {
+				return download.then(sign).then(verifySignatures).then(stageBundles(modules, context));
+			}
+
+			return download.then(sign).then(verifySignatures).then(stage(modules, closeStagingRepository,
+					(repositoryId, group) -> nexusClient.upload(repositoryId, group, context)));
+
+		}).block();
+	}
+
+	/**
+	 * Stage {@link Modules} grouped by their {@link StagingProfile}. Each group is uploaded into its own
+	 * {@link StagingRepository}. Groups are staged concurrently and report their completion individually. A failing
+	 * group does not cancel other groups, the failure is propagated once all groups have completed.
+	 *
+	 * @param modules
+	 * @param closeStagingRepository whether to close each staging repository after the upload.
+	 * @param upload function uploading a group of modules into a staging repository.
+	 * @return
+	 */
+	Mono<Void> stage(Modules modules, boolean closeStagingRepository,
+			BiFunction<StagingRepository, Modules, Mono<Void>> upload) {
+
+		return groupByStagingProfile(modules).flatMapMany(groups -> {
+
+			if (groups.size() > 1) {
+				log.info(String.format("Staging %d module(s) across %d staging profiles %s",
+						modules.getModules().size(), groups.size(), groups.keySet()));
+			}
+
+			return Flux.fromIterable(groups.entrySet());
+		}).flatMapDelayError(group -> {
 
-			// TODO Multiple keys/key rings?
-			// This one is also blocking, requires own scheduler
-			// PgpClient.createSignatures(workingDirectory, context, )
-			GAVC id = modules.getModules().get(0).getId();
-			Mono<StagingProfile> stagingProfile = nexusClient.selectStagingProfile(id);
+			StagingProfile profile = group.getKey();
+			Modules profileModules = group.getValue();
+			GAVC id = profileModules.getModules().get(0).getId();
 
-			return stagingProfile
-					.flatMap(profileId -> nexusClient.createStagingRepository(profileId, String.format("Promotion of %s", id)))
+			Mono<Void> stage = nexusClient
+					.createStagingRepository(profile, String.format("Promotion of %s", id))
 					.flatMap(repositoryId -> {
 
-						Mono<Void> upload = nexusClient.upload(repositoryId, modules, context);
+						Mono<Void> profileUpload = upload.apply(repositoryId, profileModules);
+						Mono<Void> close = closeStagingRepository
+								? nexusClient.closeStagingRepository(profile, repositoryId)
+								: Mono.empty();
 
-						if (closeStagingRepository) {
-							return upload.then(nexusClient.closeStagingRepository(repositoryId));
-						} else {
-							return upload;
-						}
-					});
+						return profileUpload.then(close).thenReturn(repositoryId);
+					}).doOnNext(repositoryId -> log.info(String.format("Staged %d module(s) of profile %s in %s",
+							profileModules.getModules().size(), profile.getProfileId(),
+							repositoryId.getRepositoryId())))
+					.then();
 
-		}).block();
+			return report(profile, stage);
+		}, Queues.SMALL_BUFFER_SIZE, Queues.XS_BUFFER_SIZE).then();
+	}
+
+	/**
+	 * Upload a single-component bundle for each {@link Module} concurrently. Nexus selects the staging profile, creates
+	 * and closes the staging repository of each bundle. Each module therefore ends up in its own staging repository.
+	 */
+	private Mono<Void> stageBundles(Modules modules, PromotionContext context) {
+
+		if (modules.getModules().size() > 1) {
+			log.warn(String.format("Bundle upload stages each of %d modules in its own staging repository. "
+					+ "Staging repositories must be released individually.", modules.getModules().size()));
+		}
+
+		return Flux.fromIterable(modules.getModules()).flatMapDelayError(module -> {
+
+			return nexusClient.uploadBundle(module, context)
+					.doOnNext(it -> log.info(String.format("Staged bundle of %s in %s", module.getId(),
+							it.getRepositoryId())))
+					.then();
+		}, Queues.SMALL_BUFFER_SIZE, Queues.XS_BUFFER_SIZE).then();
+	}
+
+	/**
+	 * Group {@link Modules} by their {@link StagingProfile} retaining the module order.
+	 */
+	private Mono<Map<StagingProfile, Modules>> groupByStagingProfile(Modules modules) {
+
+		return Flux.fromIterable(modules.getModules())
+				.concatMap(module -> nexusClient.selectStagingProfile(module.getId()).map(it -> Tuples.of(it, module)))
+				.collect(LinkedHashMap<StagingProfile, List<Module>>::new,
+						(groups, it) -> groups.computeIfAbsent(it.getT1(), key -> new ArrayList<>()).add(it.getT2()))
+				.map(groups -> {
+
+					Map<StagingProfile, Modules> result = new LinkedHashMap<>();
+					groups.forEach((profile, profileModules) -> result.put(profile, Modules.of(profileModules)));
+					return result;
+				});
+	}
+
+	private static Mono<Void> report(StagingProfile profile, Mono<Void> stage) {
+
+		return Mono.defer(() -> {
+
+			long start = System.nanoTime();
+
+			return stage.doOnSuccess(v -> log.info(String.format("Staging profile %s complete after %d ms",
+					profile.getProfileId(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))))
+					.doOnError(e -> log.error(String.format("Staging profile %s failed after %d ms: %s",
+							profile.getProfileId(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+							e.getMessage())));
+		});
 	}
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import lombok.Value;
+
+import java.io.File;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Result of verifying the PGP signature of a single file.
+ *
+ * @author Mark Paluch
+ */
+@Value
+public class SignatureVerification {
+
+	File file;
+
+	boolean valid;
+
+	@Nullable String failure;
+
+	/**
+	 * Create a successful verification result.
+	 *
+	 * @param file the verified file.
+	 * @return
+	 */
+	public static SignatureVerification valid(File file) {
+		return new SignatureVerification(file, true, null);
+	}
+
+	/**
+	 * Create a failed verification result.
+	 *
+	 * @param file the verified file.
+	 * @param failure description of the failure.
+	 * @return
+	 */
+	public static SignatureVerification invalid(File file, String failure) {
+		return new SignatureVerification(file, false, failure);
+	}
+
+	@Override
+	public String toString() {
+		return valid ? String.format("%s: valid", file.getName()) : String.format("%s: %s", file.getName(), failure);
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Exception thrown when signature verification fails for one or more artifacts.
+ *
+ * @author Mark Paluch
+ */
+public class SignatureVerificationException extends IllegalStateException {
+
+	private final List<SignatureVerification> failures;
+
+	public SignatureVerificationException(List<SignatureVerification> failures) {
+		super(String.format("Signature verification failed for %d artifact(s): %s", failures.size(),
+				failures.stream().map(SignatureVerification::toString).collect(Collectors.joining(", "))));
+		this.failures = List.copyOf(failures);
+	}
+
+	/**
+	 * Return the individual verification failures.
+	 *
+	 * @return the individual verification failures.
+	 */
+	public List<SignatureVerification> getFailures() {
+		return failures;
+	}
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import lombok.extern.apachecommons.CommonsLog;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPPublicKey;
+import org.bouncycastle.openpgp.PGPPublicKeyRing;
+import org.bouncycastle.openpgp.PGPRuntimeOperationException;
+import org.bouncycastle.openpgp.PGPSecretKey;
+import org.bouncycastle.openpgp.PGPSecretKeyRing;
+import org.bouncycastle.openpgp.PGPSignature;
+import org.bouncycastle.openpgp.PGPSignatureList;
+import org.bouncycastle.openpgp.PGPUtil;
+import org.bouncycastle.openpgp.bc.BcPGPObjectFactory;
+import org.bouncycastle.openpgp.operator.bc.BcPGPContentVerifierBuilderProvider;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+/**
+ * Verifies PGP signatures of many artifacts against the configured public key. The key ring is parsed once and
+ * signatures are verified in parallel on a dedicated bounded scheduler. Used as optional sanity check before uploading
+ * artifacts to a staging repository.
+ *
+ * @author Mark Paluch
+ */
+@Component
+@CommonsLog
+public class SignatureVerifier implements DisposableBean {
+
+	private final ArtifactPromoterProperties.Pgp pgpProperties;
+	private final File workingDirectory;
+	private final Scheduler verificationScheduler;
+
+	private volatile @Nullable PublicKeyIndex publicKeys;
+
+	public SignatureVerifier(ArtifactPromoterProperties properties) {
+
+		this.pgpProperties = properties.getPgp();
+		this.workingDirectory = properties.getWorkingDirectory();
+		this.verificationScheduler = Schedulers.newBoundedElastic(pgpProperties.getSigningParallelism(),
+				Integer.MAX_VALUE, "pgp-verification");
+	}
+
+	@Override
+	public void destroy() {
+		verificationScheduler.dispose();
+	}
+
+	/**
+	 * @return {@code true} if signatures should be verified before uploading. See
+	 *         {@link ArtifactPromoterProperties.Pgp#isVerifySignatures()}.
+	 */
+	public boolean isVerifySignatures() {
+		return pgpProperties.isVerifySignatures();
+	}
+
+	/**
+	 * Verify signatures of all artifacts of {@link Modules} and fail with {@link SignatureVerificationException} if any
+	 * signature is missing or invalid.
+	 *
+	 * @param modules
+	 * @param context
+	 * @return
+	 */
+	public Mono<Void> verifySignatures(Modules modules, PromotionContext context) {
+
+		return verify(modules, context).collectList().flatMap(results -> {
+
+			List<SignatureVerification> failures = results.stream().filter(it -> !it.isValid())
+					.collect(Collectors.toList());
+
+			if (!failures.isEmpty()) {
+				return Mono.error(new SignatureVerificationException(failures));
+			}
+
+			log.info(String.format("Signature verification of %d artifact(s) completed successfully", results.size()));
+			return Mono.empty();
+		});
+	}
+
+	/**
+	 * Verify the {@code .asc} signature of each artifact of {@link Modules}. Emits one {@link SignatureVerification}
+	 * per artifact in completion order.
+	 *
+	 * @param modules
+	 * @param context
+	 * @return
+	 */
+	public Flux<SignatureVerification> verify(Modules modules, PromotionContext context) {
+
+		File buildDirectory = WorkspaceUtils.getContextDirectory(workingDirectory, context);
+
+		return Flux.fromIterable(modules.getModules()).concatMap(module -> {
+
+			File moduleDirectory = WorkspaceUtils.getModuleDirectory(buildDirectory, module);
+
+			return Flux.fromIterable(module.getArtifacts())
+					.map(artifact -> new File(moduleDirectory, artifact.getName()));
+		}).flatMap(file -> {
+
+			File signature = new File(file.getParentFile(), file.getName() + ".asc");
+
+			return Mono.fromCallable(() -> verify(file, signature)).subscribeOn(verificationScheduler);
+		}, pgpProperties.getSigningParallelism());
+	}
+
+	/**
+	 * Verify the detached {@code signature} of {@code file}. The signature file may contain multiple signatures.
+	 * Signatures issued by unknown keys are ignored; at least one signature must be issued by a known key and all
+	 * signatures by known keys must be valid. This method is blocking.
+	 *
+	 * @param file the signed file.
+	 * @param signature the signature file.
+	 * @return the verification result.
+	 */
+	public SignatureVerification verify(File file, File signature) {
+
+		if (!file.exists()) {
+			return SignatureVerification.invalid(file, "File does not exist");
+		}
+
+		if (!signature.exists()) {
+			return SignatureVerification.invalid(file, "Signature does not exist");
+		}
+
+		PublicKeyIndex publicKeys = getPublicKeys();
+
+		try {
+
+			List<PGPSignature> signatures = new ArrayList<>();
+
+			try (InputStream is = PGPUtil.getDecoderStream(new FileInputStream(signature))) {
+
+				for (Object object : new BcPGPObjectFactory(is)) {
+
+					if (!(object instanceof PGPSignatureList)) {
+						continue;
+					}
+
+					for (PGPSignature candidate : (PGPSignatureList) object) {
+
+						PGPPublicKey publicKey = publicKeys.get(candidate.getKeyID());
+
+						if (publicKey != null) {
+							candidate.init(new BcPGPContentVerifierBuilderProvider(), publicKey);
+							signatures.add(candidate);
+						}
+					}
+				}
+			}
+
+			if (signatures.isEmpty()) {
+				return SignatureVerification.invalid(file, "No signature issued by a known key");
+			}
+
+			FileContents.read(file.toPath(), (bytes, length) -> {
+				for (PGPSignature candidate : signatures) {
+					candidate.update(bytes, 0, length);
+				}
+			});
+
+			for (PGPSignature candidate : signatures) {
+				if (!candidate.verify()) {
+					return SignatureVerification.invalid(file, "Signature invalid");
+				}
+			}
+
+			return SignatureVerification.valid(file);
+		} catch (IOException | PGPException | PGPRuntimeOperationException e) {
+			return SignatureVerification.invalid(file, "Cannot verify signature: " + e.getMessage());
+		}
+	}
+
+	private PublicKeyIndex getPublicKeys() {
+
+		PublicKeyIndex publicKeys = this.publicKeys;
+
+		if (publicKeys == null) {
+
+			synchronized (this) {
+
+				publicKeys = this.publicKeys;
+
+				if (publicKeys == null) {
+
+					File keyring = pgpProperties.getPublicKeyring() != null ? pgpProperties.getPublicKeyring()
+							: pgpProperties.getKeyring();
+
+					Assert.state(keyring != null, "PGP public key ring must be configured");
+
+					try (InputStream is = new FileInputStream(keyring)) {
+						this.publicKeys = publicKeys = PublicKeyIndex.of(is);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}
+			}
+		}
+
+		return publicKeys;
+	}
+
+	/**
+	 * Index of public keys by key id. Can be created from public and secret key rings.
+	 */
+	static class PublicKeyIndex {
+
+		private final Map<Long, PGPPublicKey> keys;
+
+		private PublicKeyIndex(Map<Long, PGPPublicKey> keys) {
+			this.keys = keys;
+		}
+
+		/**
+		 * Load a {@link PublicKeyIndex} from a (possibly armored) public or secret key ring stream.
+		 *
+		 * @param keyring
+		 * @return
+		 * @throws IOException
+		 */
+		static PublicKeyIndex of(InputStream keyring) throws IOException {
+
+			Map<Long, PGPPublicKey> keys = new HashMap<>();
+
+			for (Object object : new BcPGPObjectFactory(PGPUtil.getDecoderStream(keyring))) {
+
+				if (object instanceof PGPPublicKeyRing) {
+					for (PGPPublicKey key : (PGPPublicKeyRing) object) {
+						keys.putIfAbsent(key.getKeyID(), key);
+					}
+				}
+
+				if (object instanceof PGPSecretKeyRing) {
+					for (PGPSecretKey key : (PGPSecretKeyRing) object) {
+						keys.putIfAbsent(key.getKeyID(), key.getPublicKey());
+					}
+				}
+			}
+
+			return new PublicKeyIndex(keys);
+		}
+
+		@Nullable
+		PGPPublicKey get(long keyId) {
+			return keys.get(keyId);
+		}
+	}
+}
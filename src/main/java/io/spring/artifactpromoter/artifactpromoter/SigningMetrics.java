@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput metrics of the signing stage. Counters are cumulative across signing runs and safe for concurrent updates.
+ *
+ * @author Mark Paluch
+ */
+public class SigningMetrics {
+
+	private final LongAdder signatures = new LongAdder();
+
+	private final LongAdder bytesHashed = new LongAdder();
+
+	private final LongAdder elapsedNanos = new LongAdder();
+
+	void recordSignature(long bytes) {
+		signatures.increment();
+		bytesHashed.add(bytes);
+	}
+
+	void recordElapsed(long nanos) {
+		elapsedNanos.add(nanos);
+	}
+
+	/**
+	 * @return total number of created signatures.
+	 */
+	public long getSignatures() {
+		return signatures.sum();
+	}
+
+	/**
+	 * @return total number of bytes fed into signature generators.
+	 */
+	public long getBytesHashed() {
+		return bytesHashed.sum();
+	}
+
+	/**
+	 * @return wall-clock time spent in signing stages plus the time spent hashing and generating signatures while
+	 *         downloading.
+	 */
+	public long getElapsed(TimeUnit unit) {
+		return unit.convert(elapsedNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return signatures per second of signing time.
+	 */
+	public double getSignaturesPerSecond() {
+		return perSecond(getSignatures());
+	}
+
+	/**
+	 * @return hashed bytes per second of signing time.
+	 */
+	public double getBytesHashedPerSecond() {
+		return perSecond(getBytesHashed());
+	}
+
+	private double perSecond(long count) {
+
+		long nanos = elapsedNanos.sum();
+
+		return nanos == 0 ? 0 : count / (nanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d signature(s), %d bytes hashed in %d ms (%.1f signatures/sec, %.1f MB/sec)",
+				getSignatures(), getBytesHashed(), getElapsed(TimeUnit.MILLISECONDS), getSignaturesPerSecond(),
+				getBytesHashedPerSecond() / (1024 * 1024));
+	}
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import lombok.Value;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Manifest of verified files in the workspace of a {@link PromotionContext}. Records size, modification time and
+ * SHA-1 checksum of each file so that a subsequent run can keep unchanged files without downloading or hashing them
+ * again. The manifest is an append-only journal in the context directory; the last record of a file wins. Records are
+ * written as soon as a file is verified so that an interrupted run retains its progress.
+ *
+ * @author Mark Paluch
+ */
+public class WorkspaceManifest {
+
+	static final String FILE_NAME = ".manifest";
+
+	private final File contextDirectory;
+	private final Path journal;
+	private final Map<String, Entry> entries;
+
+	private WorkspaceManifest(File contextDirectory, Map<String, Entry> entries) {
+		this.contextDirectory = contextDirectory;
+		this.journal = new File(contextDirectory, FILE_NAME).toPath();
+		this.entries = entries;
+	}
+
+	/**
+	 * Load the manifest of {@code contextDirectory}. Returns an empty manifest if the directory has no manifest.
+	 *
+	 * @param contextDirectory
+	 * @return
+	 * @throws IOException
+	 */
+	public static WorkspaceManifest load(File contextDirectory) throws IOException {
+
+		Map<String, Entry> entries = new ConcurrentHashMap<>();
+		Path journal = new File(contextDirectory, FILE_NAME).toPath();
+
+		if (Files.exists(journal)) {
+
+			for (String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+
+				String[] parts = line.split(" ", 4);
+
+				// skip records truncated by an interrupted run
+				if (parts.length == 4) {
+					entries.put(parts[3], new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2])));
+				}
+			}
+		}
+
+		return new WorkspaceManifest(contextDirectory, entries);
+	}
+
+	/**
+	 * Create a new, empty manifest for {@code contextDirectory} discarding an existing manifest.
+	 *
+	 * @param contextDirectory
+	 * @return
+	 * @throws IOException
+	 */
+	public static WorkspaceManifest create(File contextDirectory) throws IOException {
+
+		Files.deleteIfExists(new File(contextDirectory, FILE_NAME).toPath());
+
+		return new WorkspaceManifest(contextDirectory, new ConcurrentHashMap<>());
+	}
+
+	/**
+	 * Check whether {@code file} was recorded with checksum {@code sha1} and is unchanged since, judging by its size
+	 * and modification time.
+	 *
+	 * @param file the workspace file.
+	 * @param sha1 the expected SHA-1 checksum.
+	 * @return {@code true} if the file is current.
+	 */
+	public boolean isCurrent(File file, String sha1) {
+
+		Entry entry = entries.get(getKey(file));
+
+		return entry != null && entry.getSha1().equals(sha1) && file.length() == entry.getSize()
+				&& file.lastModified() == entry.getLastModified();
+	}
+
+	/**
+	 * Record {@code file} with its verified checksum {@code sha1}.
+	 *
+	 * @param file the workspace file.
+	 * @param sha1 the SHA-1 checksum of the file.
+	 */
+	public void record(File file, String sha1) {
+
+		String key = getKey(file);
+		Entry entry = new Entry(sha1, file.length(), file.lastModified());
+
+		synchronized (this) {
+
+			try (Writer writer = Files.newBufferedWriter(journal, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND)) {
+				writer.write(String.format("%s %d %d %s%n", sha1, entry.getSize(), entry.getLastModified(), key));
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+
+			entries.put(key, entry);
+		}
+	}
+
+	private String getKey(File file) {
+		return contextDirectory.toPath().relativize(file.toPath()).toString().replace(File.separatorChar, '/');
+	}
+
+	@Value
+	static class Entry {
+
+		String sha1;
+		long size;
+		long lastModified;
+	}
+}
@@ -17,8 +17,6 @@ package io.spring.artifactpromoter.artifactpromoter;
 
 import java.io.File;
 
-import org.apache.commons.lang.SystemUtils;
-
 /**
  * Utility methods to manage the workspace directory.
  *
@@ -52,6 +50,6 @@ public class WorkspaceUtils {
 
 		GAVC gavc = module.getId();
 
-		return new File(buildDirectory, gavc.toString(SystemUtils.FILE_SEPARATOR));
+		return new File(buildDirectory, gavc.toString(File.separator));
 	}
 }
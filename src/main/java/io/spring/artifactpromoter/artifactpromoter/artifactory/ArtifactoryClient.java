@@ -16,37 +16,58 @@
 package io.spring.artifactpromoter.artifactpromoter.artifactory;
 
 import io.spring.artifactpromoter.artifactpromoter.Artifact;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactCache;
 import io.spring.artifactpromoter.artifactpromoter.ArtifactPromoterProperties;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactSigner;
+import io.spring.artifactpromoter.artifactpromoter.ChecksumAlgorithm;
+import io.spring.artifactpromoter.artifactpromoter.Checksums;
+import io.spring.artifactpromoter.artifactpromoter.FileContents;
+import io.spring.artifactpromoter.artifactpromoter.HttpClientResources;
 import io.spring.artifactpromoter.artifactpromoter.Module;
 import io.spring.artifactpromoter.artifactpromoter.Modules;
+import io.spring.artifactpromoter.artifactpromoter.MultiDigest;
 import io.spring.artifactpromoter.artifactpromoter.PromotionContext;
+import io.spring.artifactpromoter.artifactpromoter.WorkspaceManifest;
 import io.spring.artifactpromoter.artifactpromoter.WorkspaceUtils;
 import lombok.extern.apachecommons.CommonsLog;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuples;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.apache.commons.io.FileUtils;
-import org.jfrog.build.api.Build;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunctions;
-import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
@@ -57,35 +78,51 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
  */
 @Component
 @CommonsLog
-public class ArtifactoryClient {
+public class ArtifactoryClient implements DisposableBean {
 
 	private static final String BUILD_URL = "%s/api/build/{build}/{number}";
 	private static final String BUILD_ARTIFACTS_URL = "%s/api/search/buildArtifacts";
 
 	private final ArtifactPromoterProperties.Artifactory artifactoryProperties;
 	private final File workingDirectory;
+	private final long mappingThreshold;
+	private final ArtifactSigner signer;
+	private final ArtifactCache artifactCache;
+	private final HttpClientResources httpResources;
 	private final WebClient webClient;
+	private final Scheduler verificationScheduler;
+	private final DownloadMetrics metrics = new DownloadMetrics();
 
-	public ArtifactoryClient(ArtifactPromoterProperties properties) {
+	public ArtifactoryClient(ArtifactPromoterProperties properties, ArtifactSigner signer,
+			ArtifactCache artifactCache) {
 
 		this.artifactoryProperties = properties.getArtifactory();
 		this.workingDirectory = properties.getWorkingDirectory();
+		this.mappingThreshold = properties.getMappingThreshold().toBytes();
+		this.signer = signer;
+		this.artifactCache = artifactCache;
+		// digest work only, blocking file I/O runs on the shared bounded elastic scheduler
+		this.verificationScheduler = Schedulers.newBoundedElastic(artifactoryProperties.getVerificationParallelism(),
+				Integer.MAX_VALUE, "checksum-verification");
 
 		ExchangeFilterFunction exchangeFilterFunction = ExchangeFilterFunctions
 				.basicAuthentication(artifactoryProperties.getUsername(), artifactoryProperties.getPassword());
 
-		Jackson2JsonDecoder decoder = new Jackson2JsonDecoder();
-		decoder.setMaxInMemorySize(1024 * 1024 * 4 /* 4mb */);
-		ExchangeStrategies strategies = ExchangeStrategies.builder().codecs(clientCodecConfigurer -> {
-			clientCodecConfigurer.customCodecs().register(decoder);
-		}).build();
+		this.httpResources = HttpClientResources.create("artifactory", artifactoryProperties.getHttp());
+		this.webClient = WebClient.builder().clientConnector(httpResources.getConnector())
+				.filter(exchangeFilterFunction).build();
+	}
 
-		this.webClient = WebClient.builder().filter(exchangeFilterFunction).exchangeStrategies(strategies).build();
+	@Override
+	public void destroy() {
+		verificationScheduler.dispose();
+		httpResources.destroy();
 	}
 
 	/**
 	 * Resolve {@link Modules} from a {@link ArtifactoryBuild}. Determines which modules and artifacts were deployed as
-	 * part of the build.
+	 * part of the build. The build info and the build artifacts are parsed while streaming so their size is not bound
+	 * by a codec buffer limit.
 	 *
 	 * @param build
 	 * @param number
@@ -94,12 +131,13 @@ public class ArtifactoryClient {
 	 */
 	public Mono<Modules> resolveModules(ArtifactoryBuild build, Predicate<String> artifactFilter) {
 
-		Mono<Build> buildInfo = this.webClient.get()
+		Mono<List<BuildInfoModule>> buildInfo = this.webClient.get()
 				.uri(String.format(BUILD_URL, artifactoryProperties.getAddress()), build.getBuildName(), build.getBuildNumber())
-				.retrieve().bodyToMono(BuildInfoRepresentation.class).onErrorMap(WebClientResponseException.class, e -> {
+				.retrieve().bodyToFlux(DataBuffer.class).transform(BuildInfoParser::parse).collectList()
+				.onErrorMap(WebClientResponseException.class, e -> {
 
 					return new IllegalStateException(e.getMessage() + ": " + e.getResponseBodyAsString(), e);
-				}).map(BuildInfoRepresentation::getBuildInfo);
+				});
 
 		BuildArtifactsRequest buildArtifactsRequest = new BuildArtifactsRequest(build.getBuildName(),
 				build.getBuildNumber());
@@ -108,8 +146,9 @@ public class ArtifactoryClient {
 				.uri(String.format(BUILD_ARTIFACTS_URL, artifactoryProperties.getAddress())) //
 				.bodyValue(buildArtifactsRequest) //
 				.retrieve() //
-				.bodyToMono(BuildArtifactsResponse.class) //
-				.map(BuildArtifactsResponse::getResults);
+				.bodyToFlux(DataBuffer.class) //
+				.transform(BuildArtifactsParser::parse) //
+				.collectList();
 
 		return buildInfo.zipWith(downloadUris)
 				.map(it -> DownloadableBuild.from(it.getT1(), it.getT2()).toModules(artifactFilter));
@@ -136,6 +175,30 @@ public class ArtifactoryClient {
 	/**
 	 * Download {@link Modules} including their artifacts and checksum files into the configured workspace directory.
 	 * Module directories must exist. See {@link #prepareDirectories(Modules, ArtifactoryBuild)}.
+	 * <p>
+	 * When {@link ArtifactPromoterProperties.Artifactory#isVerifyChecksumsOnDownload() verifying checksums on download},
+	 * artifact checksums are computed from the response body while it is written to disk and verified against the
+	 * checksums reported in the build info as soon as the body completes. Downloaded artifacts do not require a
+	 * subsequent {@link #verifyChecksums(Modules, PromotionContext)} pass. The downloaded {@code .md5} and
+	 * {@code .sha1} files are verified once all files of the module are downloaded and, depending on the
+	 * {@link ArtifactPromoterProperties.Artifactory#getFsync() fsync policy}, flushed.
+	 * <p>
+	 * When {@link ArtifactSigner#isSignOnDownload() signing on download}, the PGP signature is updated from the same
+	 * response body and the {@code .asc} file is written once the body completes.
+	 * <p>
+	 * Concurrent requests are limited by the adaptive concurrency limit of the Artifactory endpoint. Transient failures
+	 * are retried with exponential backoff, resuming partially downloaded files with a {@code Range} request.
+	 * <p>
+	 * If the {@link ArtifactCache} is enabled, artifacts are linked from the cache by their SHA-1 checksum and only
+	 * cache misses are downloaded. Downloaded artifacts are added to the cache once their checksums are verified.
+	 * <p>
+	 * When {@link ArtifactPromoterProperties.Artifactory#isGenerateChecksumFiles() generating checksum files}, only the
+	 * artifact binary is downloaded and verified against the checksums reported in the build info. No {@code .md5} and
+	 * {@code .sha1} files are written, uploads send the verified checksums from memory.
+	 * <p>
+	 * Artifacts with checksums verified while downloading are recorded in the {@link WorkspaceManifest}. When
+	 * {@link #isResume() resuming}, artifacts recorded by a previous run that are unchanged and match the checksum
+	 * reported by the build info are kept without downloading or hashing them again.
 	 *
 	 * @param modules
 	 * @param build
@@ -144,7 +207,33 @@ public class ArtifactoryClient {
 	public Mono<Void> download(Modules modules, ArtifactoryBuild build) {
 
 		File buildDirectory = new File(workingDirectory, WorkspaceUtils.getSafeFileName(build));
+
+		Mono<WorkspaceManifest> manifest = Mono.fromCallable(() -> isResume() ? WorkspaceManifest.load(buildDirectory)
+				: WorkspaceManifest.create(buildDirectory));
+
+		return manifest.flatMap(it -> download(modules, buildDirectory, it));
+	}
+
+	/**
+	 * @return {@code true} to keep the workspace of a previous run. See
+	 *         {@link ArtifactPromoterProperties.Artifactory#isResume()}.
+	 */
+	public boolean isResume() {
+		return artifactoryProperties.isResume();
+	}
+
+	/**
+	 * @return cumulative download metrics.
+	 */
+	public DownloadMetrics getMetrics() {
+		return metrics;
+	}
+
+	private Mono<Void> download(Modules modules, File buildDirectory, WorkspaceManifest manifest) {
+
 		Map<io.spring.artifactpromoter.artifactpromoter.Module, File> directories = getDirectories(modules, buildDirectory);
+		LongAdder kept = new LongAdder();
+		long start = System.nanoTime();
 
 		return Flux.fromIterable(modules.getModules()).flatMap(it -> {
 
@@ -153,17 +242,87 @@ public class ArtifactoryClient {
 
 			return Flux.fromIterable(it.getArtifacts()).flatMap(artifact -> {
 
-				Mono<Void> file = download(moduleDirectory, artifact.getBinaryDownloadUri(), artifact.getName());
 				Mono<Void> md5 = download(moduleDirectory, artifact.getBinaryDownloadUri() + ".md5",
 						artifact.getName() + ".md5");
 				Mono<Void> sha1 = download(moduleDirectory, artifact.getBinaryDownloadUri() + ".sha1",
 						artifact.getName() + ".sha1");
 
-				return Mono.when(file, md5, sha1);
-			}).then().doOnSuccess(v -> {
-				log.info(String.format("Download of %s complete", it.getId()));
-			});
-		}).then();
+				if (isResume() && isCurrent(moduleDirectory, artifact, manifest)) {
+					kept.increment();
+					return Mono.<Mono<Void>> empty();
+				}
+
+				Mono<Checksums> file = downloadArtifact(moduleDirectory, artifact, manifest);
+
+				if (artifactoryProperties.isGenerateChecksumFiles()) {
+					return file.then(Mono.<Mono<Void>> empty());
+				}
+
+				if (!artifactoryProperties.isVerifyChecksumsOnDownload()) {
+					return Mono.when(file, md5, sha1).then(Mono.<Mono<Void>> empty());
+				}
+
+				// verify checksum files once the module is flushed
+				return Mono.zip(file, Mono.when(md5, sha1).thenReturn(artifact))
+						.map(tuple -> verifyChecksumFiles(moduleDirectory, artifact, tuple.getT1()));
+			}).collectList().flatMap(verifications -> sync(moduleDirectory).then(Mono.when(verifications)))
+					.doOnSuccess(v -> log.info(String.format("Download of %s complete", it.getId())));
+		}).then().doOnSuccess(v -> {
+
+			metrics.recordElapsed(System.nanoTime() - start);
+			log.info(String.format("Downloaded %s", metrics));
+
+			if (isResume()) {
+				log.info(String.format("Kept %d artifact(s) from previous run", kept.sum()));
+			}
+
+			if (artifactCache.isEnabled()) {
+				log.info(artifactCache.toString());
+			}
+
+			log.info(String.format("Download complete. Concurrency %s", httpResources.getConcurrencyLimiter()));
+		});
+	}
+
+	/**
+	 * Stream the content of {@link Artifact} to {@code consumer} without writing it to disk. Checksums and the PGP
+	 * signature are computed while the consumer reads the response body. The concurrency permit is held until the
+	 * consumer completes. Transient failures of the download or the consumer are retried using the endpoint retry
+	 * policy by requesting the artifact again and passing the new body to the consumer.
+	 *
+	 * @param artifact the artifact to stream.
+	 * @param consumer function consuming the content length ({@code -1} if unknown) and the response body.
+	 * @return the checksums and signature once the consumer completed and the checksums match the checksums reported
+	 *         by the build info.
+	 */
+	public Mono<StreamedArtifact> stream(Artifact artifact, BiFunction<Long, Flux<DataBuffer>, Mono<Void>> consumer) {
+
+		String uri = artifact.getBinaryDownloadUri();
+
+		return httpResources.getConcurrencyLimiter().run(responded -> Mono.defer(() -> {
+
+			MultiDigest digest = MultiDigest.of(getChecksumAlgorithms());
+			ArtifactSigner.StreamingSignature signature = signer.createStreamingSignature();
+			ArtifactContent content = new ArtifactContent(digest, signature, false);
+
+			Mono<ResponseEntity<Flux<DataBuffer>>> exchange = webClient.get().uri(uri).retrieve()
+					.toEntityFlux(DataBuffer.class).doOnNext(it -> responded.run());
+
+			return exchange.flatMap(response -> {
+
+				Flux<DataBuffer> body = response.getBody().doOnNext(buffer -> content.accept(buffer.asByteBuffer()));
+				return consumer.apply(response.getHeaders().getContentLength(), body);
+			}).then(Mono.defer(() -> {
+
+				Checksums computed = digest.digest();
+				verifyReportedChecksums(artifact, computed);
+
+				return signature.armor().map(it -> StreamedArtifact.of(artifact, computed, it));
+			}));
+		})).retryWhen(httpResources.getRetry().doBeforeRetry(signal -> {
+			log.warn(String.format("Retrying relay of %s (retry %d): %s", uri, signal.totalRetries() + 1,
+					signal.failure()));
+		}));
 	}
 
 	private Map<io.spring.artifactpromoter.artifactpromoter.Module, File> getDirectories(Modules modules,
@@ -182,43 +341,99 @@ public class ArtifactoryClient {
 
 	/**
 	 * Verify checksums of the {@link Modules} against the checksums reported by the repository and checksum files.
-	 * Computes MD5 and SHA1 checksums.
+	 * Checksum files are not read when {@link ArtifactPromoterProperties.Artifactory#isGenerateChecksumFiles()
+	 * generating checksum files} as they are not downloaded.
+	 * Computes MD5 and SHA1 checksums in a single pass over each artifact. Artifacts are verified in parallel on a
+	 * bounded scheduler. Verification fails fast after the first mismatch: No further artifacts are scheduled and
+	 * artifacts being hashed are abandoned at their next chunk, see {@link FileContents}. All mismatches found by then
+	 * are reported through {@link ChecksumVerificationException}. Cancelling the subscription abandons hashing in the
+	 * same way.
 	 *
 	 * @param modules
 	 * @param build
-	 * @throws IOException
+	 * @return
 	 */
-	public void verifyChecksums(Modules modules, PromotionContext build) throws IOException {
+	public Mono<Void> verifyChecksums(Modules modules, PromotionContext build) {
 
 		File buildDirectory = new File(workingDirectory, WorkspaceUtils.getSafeFileName(build));
+		AtomicBoolean stopped = new AtomicBoolean();
 
-		for (io.spring.artifactpromoter.artifactpromoter.Module module : modules.getModules()) {
+		return Flux.fromIterable(modules.getModules()).concatMap(module -> {
 
 			File moduleDirectory = WorkspaceUtils.getModuleDirectory(buildDirectory, module);
 			log.info(String.format("Verifying checksums for module %s to  %s...", module.getId(), moduleDirectory));
 
-			for (Artifact artifact : module.getArtifacts()) {
+			return Flux.fromIterable(module.getArtifacts()).map(artifact -> Tuples.of(moduleDirectory, artifact));
+		}).flatMap(it -> Mono.fromCallable(() -> {
 
-				String sha1File = readChecksumFile(moduleDirectory, artifact, "sha1");
-				String md5File = readChecksumFile(moduleDirectory, artifact, "md5");
+			if (stopped.get()) {
+				return null;
+			}
 
-				String computedSha1 = computeSha1(moduleDirectory, artifact);
-				String computedMd5 = computeMd5(moduleDirectory, artifact);
+			String failure = verifyChecksums(it.getT1(), it.getT2(), stopped::get);
 
-				if (!verify(artifact.getSha1(), sha1File, computedSha1)) {
-					throw new IllegalStateException("SHA1 checksum verification failed for " + artifact.getName());
-				}
-
-				if (!verify(artifact.getMd5(), md5File, computedMd5)) {
-					throw new IllegalStateException("MD5 checksum verification failed for " + artifact.getName());
-				}
+			if (failure != null) {
+				stopped.set(true);
 			}
 
-			log.info(String.format("Checksum verification of %s completed successfully", module.getId()));
+			return failure;
+		}).subscribeOn(verificationScheduler), artifactoryProperties.getVerificationParallelism())
+				.doOnCancel(() -> stopped.set(true)).collectList()
+				.flatMap(failures -> {
+
+					if (!failures.isEmpty()) {
+						return Mono.error(new ChecksumVerificationException(failures));
+					}
+
+					log.info(String.format("Checksum verification of %d module(s) completed successfully",
+							modules.getModules().size()));
+					return Mono.empty();
+				});
+	}
+
+	/**
+	 * Verify a single artifact.
+	 *
+	 * @return the failure message or {@code null} if the checksums match or verification was stopped.
+	 */
+	@Nullable
+	private String verifyChecksums(File moduleDirectory, Artifact artifact, BooleanSupplier stopped)
+			throws IOException {
+
+		boolean checksumFiles = !artifactoryProperties.isGenerateChecksumFiles();
+		String sha1File = checksumFiles ? readChecksumFile(moduleDirectory, artifact, "sha1") : artifact.getSha1();
+		String md5File = checksumFiles ? readChecksumFile(moduleDirectory, artifact, "md5") : artifact.getMd5();
+
+		MultiDigest digest = MultiDigest.of(ChecksumAlgorithm.MD5, ChecksumAlgorithm.SHA1);
+
+		try {
+			FileContents.read(new File(moduleDirectory, artifact.getName()).toPath(), mappingThreshold,
+					(Consumer<ByteBuffer>) buffer -> {
+
+						if (stopped.getAsBoolean()) {
+							throw new CancellationException();
+						}
+
+						digest.update(buffer);
+					});
+		} catch (CancellationException e) {
+			return null;
+		}
+
+		Checksums computed = digest.digest();
+
+		if (!verify(artifact.getSha1(), sha1File, computed.getSha1())) {
+			return "SHA1 checksum verification failed for " + artifact.getName();
+		}
+
+		if (!verify(artifact.getMd5(), md5File, computed.getMd5())) {
+			return "MD5 checksum verification failed for " + artifact.getName();
 		}
+
+		return null;
 	}
 
-	private boolean verify(String reportedByRepository, String checksumFile, String computed) {
+	private static boolean verify(String reportedByRepository, String checksumFile, String computed) {
 
 		if (!reportedByRepository.equals(computed)) {
 			return false;
@@ -231,30 +446,349 @@ public class ArtifactoryClient {
 		return true;
 	}
 
-	private Mono<Void> download(File downloadDirectory, String uri, String name) {
+	/**
+	 * Download an artifact in a single pass over the response body: Computes checksums if verifying checksums on
+	 * download and updates the PGP signature if signing on download. Emits the computed checksums or completes empty if
+	 * checksums are not verified on download. Artifacts found in the {@link ArtifactCache} are linked into the
+	 * workspace and read from disk instead. An artifact whose checksums do not match the checksums reported by the
+	 * build info is downloaded once more from the start before failing; a corrupt cached file is evicted from the
+	 * cache.
+	 */
+	private Mono<Checksums> downloadArtifact(File downloadDirectory, Artifact artifact, WorkspaceManifest manifest) {
+
+		File localFileName = new File(downloadDirectory, artifact.getName());
+		String uri = artifact.getBinaryDownloadUri();
+
+		return linkFromCache(localFileName, artifact)
+				.switchIfEmpty(Mono.defer(() -> download(localFileName, uri, this::createArtifactContent)))
+				.flatMap(content -> complete(localFileName, artifact, content, manifest))
+				.onErrorResume(ChecksumVerificationException.class, e -> {
+
+					log.warn(String.format("%s. Downloading %s again", e.getMessage(), artifact.getName()));
+					return download(localFileName, uri, this::createArtifactContent)
+							.flatMap(content -> complete(localFileName, artifact, content, manifest));
+				});
+	}
+
+	private Mono<ArtifactContent> linkFromCache(File localFileName, Artifact artifact) {
+
+		if (!artifactCache.isEnabled() || artifact.getSha1() == null) {
+			return Mono.empty();
+		}
+
+		return Mono.fromCallable(() -> {
+
+			if (!artifactCache.link(artifact.getSha1(), localFileName)) {
+				return null;
+			}
+
+			ArtifactContent content = createArtifactContent(true);
+
+			if (content.digest != null || content.signature != null) {
+				replay(localFileName, localFileName.length(), content);
+			}
+
+			return content;
+		}).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	private ArtifactContent createArtifactContent() {
+		return createArtifactContent(false);
+	}
+
+	private ArtifactContent createArtifactContent(boolean cached) {
+
+		boolean digest = artifactoryProperties.isVerifyChecksumsOnDownload()
+				|| artifactoryProperties.isGenerateChecksumFiles();
+
+		return new ArtifactContent(digest ? MultiDigest.of(getChecksumAlgorithms()) : null,
+				signer.isSignOnDownload() ? signer.createStreamingSignature() : null, cached);
+	}
+
+	/**
+	 * Check whether the artifact and its downloaded checksum and signature files are present from a previous run.
+	 */
+	private boolean isCurrent(File moduleDirectory, Artifact artifact, WorkspaceManifest manifest) {
+
+		for (String filename : artifact.getDistributionFileNames()) {
+
+			boolean signature = filename.endsWith(".asc");
+			boolean checksum = filename.endsWith(".md5") || filename.endsWith(".sha1");
+
+			if ((signature && !signer.isSignOnDownload())
+					|| (checksum && artifactoryProperties.isGenerateChecksumFiles())) {
+				continue;
+			}
+
+			if (!new File(moduleDirectory, filename).isFile()) {
+				return false;
+			}
+		}
+
+		return artifact.getSha1() != null
+				&& manifest.isCurrent(new File(moduleDirectory, artifact.getName()), artifact.getSha1());
+	}
+
+	/**
+	 * Verify the computed checksums, write the signature, add verified artifacts to the cache and record them in the
+	 * {@link WorkspaceManifest}. Artifacts without computed checksums are not recorded. A signature left by a previous
+	 * run is removed when the artifact is not signed while downloading so that it is signed again.
+	 */
+	private Mono<Checksums> complete(File localFileName, Artifact artifact, ArtifactContent content,
+			WorkspaceManifest manifest) {
+
+		Checksums computed = null;
+
+		if (content.digest != null) {
+
+			computed = content.digest.digest();
+
+			try {
+				verifyReportedChecksums(artifact, computed);
+			} catch (ChecksumVerificationException e) {
+
+				if (content.cached) {
+					artifactCache.invalidate(artifact.getSha1());
+				}
+
+				throw e;
+			}
+		}
+
+		File signatureFile = new File(localFileName.getParentFile(), artifact.getName() + ".asc");
+		Mono<Void> signed = content.signature != null ? content.signature.write(signatureFile)
+				: isResume() ? Mono.fromCallable(() -> Files.deleteIfExists(signatureFile.toPath()))
+						.subscribeOn(Schedulers.boundedElastic()).then() : Mono.empty();
+
+		Mono<Void> cached = computed != null && artifactCache.isEnabled()
+				? Mono.<Void> fromRunnable(() -> artifactCache.store(artifact.getSha1(), localFileName))
+						.subscribeOn(Schedulers.boundedElastic())
+				: Mono.empty();
 
-		Flux<DataBuffer> buffers = webClient.get().uri(uri).retrieve().bodyToFlux(DataBuffer.class);
-		File localFileName = new File(downloadDirectory, name);
+		String sha1 = computed != null ? computed.getSha1() : null;
+		Mono<Void> recorded = sha1 != null
+				? Mono.<Void> fromRunnable(() -> manifest.record(localFileName, sha1))
+						.subscribeOn(Schedulers.boundedElastic())
+				: Mono.empty();
 
-		return DataBufferUtils.write(buffers, localFileName.toPath());
+		return signed.then(cached).then(recorded).then(Mono.justOrEmpty(computed));
 	}
 
-	private static String computeSha1(File moduleDirectory, Artifact artifact) throws IOException {
-		try (InputStream inputStream = getArtifactInputStream(moduleDirectory, artifact)) {
-			return org.apache.commons.codec.digest.DigestUtils.sha1Hex(inputStream);
+	private Mono<Void> verifyChecksumFiles(File moduleDirectory, Artifact artifact, Checksums computed) {
+
+		return Mono.fromCallable(() -> {
+
+			if (!readChecksumFile(moduleDirectory, artifact, "sha1").contains(computed.getRequired(ChecksumAlgorithm.SHA1))) {
+				throw new IllegalStateException("SHA1 checksum verification failed for " + artifact.getName());
+			}
+
+			if (!readChecksumFile(moduleDirectory, artifact, "md5").contains(computed.getRequired(ChecksumAlgorithm.MD5))) {
+				throw new IllegalStateException("MD5 checksum verification failed for " + artifact.getName());
+			}
+
+			return artifact;
+		}).subscribeOn(Schedulers.boundedElastic()).then();
+	}
+
+	private void verifyReportedChecksums(Artifact artifact, Checksums computed) {
+
+		if (!artifact.getSha1().equals(computed.getSha1())) {
+			throw new ChecksumVerificationException(
+					List.of("SHA1 checksum verification failed for " + artifact.getName()));
+		}
+
+		if (!artifact.getMd5().equals(computed.getMd5())) {
+			throw new ChecksumVerificationException(
+					List.of("MD5 checksum verification failed for " + artifact.getName()));
+		}
+
+		if (artifactoryProperties.isVerifySha256() && artifact.getSha256() != null
+				&& !artifact.getSha256().equals(computed.getSha256())) {
+			throw new ChecksumVerificationException(
+					List.of("SHA256 checksum verification failed for " + artifact.getName()));
 		}
 	}
 
-	private static String computeMd5(File moduleDirectory, Artifact artifact) throws IOException {
+	private ChecksumAlgorithm[] getChecksumAlgorithms() {
 
-		try (InputStream inputStream = getArtifactInputStream(moduleDirectory, artifact)) {
-			return org.apache.commons.codec.digest.DigestUtils.md5Hex(inputStream);
+		if (artifactoryProperties.isVerifySha256()) {
+			return new ChecksumAlgorithm[] { ChecksumAlgorithm.MD5, ChecksumAlgorithm.SHA1, ChecksumAlgorithm.SHA256 };
 		}
+
+		return new ChecksumAlgorithm[] { ChecksumAlgorithm.MD5, ChecksumAlgorithm.SHA1 };
+	}
+
+	private Mono<Void> download(File downloadDirectory, String uri, String name) {
+		return download(new File(downloadDirectory, name), uri, () -> buffer -> {}).then();
 	}
 
-	private static InputStream getArtifactInputStream(File moduleDirectory, Artifact artifact)
-			throws FileNotFoundException {
-		return new BufferedInputStream(new FileInputStream(new File(moduleDirectory, artifact.getName())));
+	/**
+	 * Download {@code uri} to {@code target} and notify the listener about the downloaded content. Transient failures
+	 * are retried using the endpoint retry policy. A retry resumes from the bytes already written using a
+	 * {@code Range} request if at least {@link ArtifactPromoterProperties.Artifactory#getResumeThreshold()} bytes were
+	 * written and the server responds with partial content. Each attempt obtains a new listener that receives the file
+	 * content in order, including the bytes already on disk when resuming.
+	 *
+	 * @param target the file to write to.
+	 * @param uri the download URI.
+	 * @param listeners supplier for a listener for each attempt.
+	 * @return the listener of the successful attempt.
+	 */
+	private <T extends Consumer<ByteBuffer>> Mono<T> download(File target, String uri, Supplier<T> listeners) {
+
+		AtomicBoolean retry = new AtomicBoolean();
+		long resumeThreshold = artifactoryProperties.getResumeThreshold().toBytes();
+
+		return httpResources.getConcurrencyLimiter().run(responded -> Mono.defer(() -> {
+
+			long offset = retry.getAndSet(true) && target.length() >= resumeThreshold ? target.length() : 0;
+			T listener = listeners.get();
+
+			WebClient.RequestHeadersSpec<?> request = webClient.get().uri(uri);
+
+			if (offset > 0) {
+				request = request.header(HttpHeaders.RANGE, "bytes=" + offset + "-");
+			}
+
+			Mono<ResponseEntity<Flux<DataBuffer>>> exchange = request.retrieve().toEntityFlux(DataBuffer.class)
+					.doOnNext(it -> responded.run());
+
+			return exchange.flatMap(response -> {
+
+				Flux<DataBuffer> body = response.getBody()
+						.doOnNext(buffer -> listener.accept(buffer.asByteBuffer()));
+
+				if (offset == 0 || response.getStatusCode() != HttpStatus.PARTIAL_CONTENT) {
+
+					// unlink first to not overwrite a file hard-linked from the artifact cache
+					return Mono.fromCallable(() -> Files.deleteIfExists(target.toPath()))
+							.subscribeOn(Schedulers.boundedElastic()).then(write(body, target, 0)).thenReturn(listener);
+				}
+
+				String contentRange = response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE);
+
+				if (contentRange == null || !contentRange.startsWith("bytes " + offset + "-")) {
+					IllegalStateException e = new IllegalStateException(
+							String.format("Unexpected Content-Range %s resuming %s at %d", contentRange, uri, offset));
+					return response.getBody().doOnNext(DataBufferUtils::release).then(Mono.error(e));
+				}
+
+				log.info(String.format("Resuming download of %s at %d bytes", uri, offset));
+
+				return Mono.fromCallable(() -> {
+
+					replay(target, offset, listener);
+					return listener;
+				}).subscribeOn(Schedulers.boundedElastic())
+						.then(write(body, target, offset)).thenReturn(listener);
+			});
+		})).retryWhen(httpResources.getRetry().doBeforeRetry(signal -> {
+			log.warn(String.format("Retrying download of %s (retry %d): %s", uri, signal.totalRetries() + 1,
+					signal.failure()));
+		}));
+	}
+
+	/**
+	 * Write {@code buffers} to {@code file} starting at {@code position} and release the buffers. Buffers received by
+	 * the HTTP client are pooled direct buffers that are written to the {@link AsynchronousFileChannel} without copying
+	 * them to the heap. Records the file and the latency of each channel write in {@link DownloadMetrics}.
+	 */
+	private Mono<Void> write(Flux<DataBuffer> buffers, File file, long position) {
+
+		return Mono.defer(() -> {
+
+			LongAdder count = new LongAdder();
+			LongAdder bytes = new LongAdder();
+
+			Flux<DataBuffer> counted = buffers.doOnNext(buffer -> {
+				count.increment();
+				bytes.add(buffer.readableByteCount());
+			});
+
+			Mono<Void> write = Mono.using(
+					() -> new MeteredFileChannel(AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+							StandardOpenOption.WRITE), metrics::recordWrite),
+					channel -> DataBufferUtils.write(counted, channel, position).doOnNext(DataBufferUtils::release)
+							.then(),
+					channel -> {
+						try {
+							channel.close();
+						} catch (IOException e) {
+							log.debug("Cannot close " + file, e);
+						}
+					});
+
+			return write.doOnSuccess(v -> {
+
+				metrics.recordFile(count.sum(), bytes.sum());
+
+				if (log.isDebugEnabled()) {
+					log.debug(String.format("Wrote %s: %d bytes in %d buffer(s)", file.getName(), bytes.sum(),
+							count.sum()));
+				}
+			});
+		});
+	}
+
+	/**
+	 * Flush all files of {@code moduleDirectory} and the directory itself to the storage device if the
+	 * {@link ArtifactPromoterProperties.FsyncPolicy fsync policy} requires it.
+	 */
+	private Mono<Void> sync(File moduleDirectory) {
+
+		if (artifactoryProperties.getFsync() != ArtifactPromoterProperties.FsyncPolicy.MODULE) {
+			return Mono.empty();
+		}
+
+		return Mono.fromCallable(() -> {
+
+			long start = System.nanoTime();
+			File[] files = moduleDirectory.listFiles(File::isFile);
+
+			for (File file : files != null ? files : new File[0]) {
+				try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+					channel.force(true);
+				}
+			}
+
+			try (FileChannel channel = FileChannel.open(moduleDirectory.toPath(), StandardOpenOption.READ)) {
+				channel.force(true);
+			} catch (IOException e) {
+				// directories cannot be opened on all platforms
+				log.debug("Cannot flush " + moduleDirectory, e);
+			}
+
+			metrics.recordSync(System.nanoTime() - start);
+			return moduleDirectory;
+		}).subscribeOn(Schedulers.boundedElastic()).then();
+	}
+
+	/**
+	 * Feed the first {@code length} bytes of {@code file} to {@code listener}.
+	 */
+	private static void replay(File file, long length, Consumer<ByteBuffer> listener) throws IOException {
+
+		ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+
+			long remaining = length;
+
+			while (remaining > 0) {
+
+				buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+				int read = channel.read(buffer);
+
+				if (read == -1) {
+					throw new IllegalStateException(
+							String.format("Cannot resume %s: file is shorter than %d bytes", file, length));
+				}
+
+				buffer.flip();
+				listener.accept(buffer);
+				remaining -= read;
+			}
+		}
 	}
 
 	private static String readChecksumFile(File moduleDirectory, Artifact artifact, String type) throws IOException {
@@ -262,4 +796,32 @@ public class ArtifactoryClient {
 				StandardCharsets.US_ASCII);
 	}
 
+	/**
+	 * Content listener computing checksums and the PGP signature of a downloaded artifact.
+	 */
+	private static class ArtifactContent implements Consumer<ByteBuffer> {
+
+		private final @Nullable MultiDigest digest;
+		private final @Nullable ArtifactSigner.StreamingSignature signature;
+		private final boolean cached;
+
+		ArtifactContent(@Nullable MultiDigest digest, @Nullable ArtifactSigner.StreamingSignature signature,
+				boolean cached) {
+			this.digest = digest;
+			this.signature = signature;
+			this.cached = cached;
+		}
+
+		@Override
+		public void accept(ByteBuffer buffer) {
+
+			if (digest != null) {
+				digest.update(buffer.duplicate());
+			}
+
+			if (signature != null) {
+				signature.update(buffer);
+			}
+		}
+	}
 }
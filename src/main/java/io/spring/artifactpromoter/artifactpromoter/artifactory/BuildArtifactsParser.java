@@ -0,0 +1,147 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.artifactory;
+
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+/**
+ * Streaming parser for Artifactory build artifacts search responses ({@code /api/search/buildArtifacts}). Only
+ * {@code downloadUris[].downloadUri} is extracted from the token stream so that the response size is not bound by a
+ * codec buffer limit.
+ * <p>
+ * Instances are stateful and must be used for a single response only.
+ *
+ * @author Mark Paluch
+ */
+class BuildArtifactsParser {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private final JsonParser parser;
+
+	private final ByteArrayFeeder feeder;
+
+	private BuildArtifactsParser() {
+
+		try {
+			this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		this.feeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
+	}
+
+	/**
+	 * Parse a build artifacts response body into {@link DownloadUri}s. Consumed {@link DataBuffer}s are released.
+	 * @param body the response body.
+	 * @return the parsed download URIs.
+	 */
+	static Flux<DownloadUri> parse(Flux<DataBuffer> body) {
+
+		return Flux.defer(() -> {
+
+			BuildArtifactsParser parser = new BuildArtifactsParser();
+
+			return body.concatMapIterable(parser::feed) //
+					.concatWith(Flux.defer(() -> Flux.fromIterable(parser.endOfInput())));
+		}).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+	}
+
+	private List<DownloadUri> feed(DataBuffer dataBuffer) {
+
+		try {
+
+			byte[] bytes = new byte[dataBuffer.readableByteCount()];
+			dataBuffer.read(bytes);
+			feeder.feedInput(bytes, 0, bytes.length);
+
+			return drain();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot parse build artifacts", e);
+		} finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+	private List<DownloadUri> endOfInput() {
+
+		feeder.endOfInput();
+
+		try {
+
+			List<DownloadUri> downloadUris = drain();
+
+			if (!parser.getParsingContext().inRoot()) {
+				throw new IllegalStateException("Cannot parse build artifacts: Incomplete JSON document");
+			}
+
+			parser.close();
+			return downloadUris;
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot parse build artifacts", e);
+		}
+	}
+
+	private List<DownloadUri> drain() throws IOException {
+
+		List<DownloadUri> downloadUris = Collections.emptyList();
+		JsonToken token;
+
+		while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+
+			if (token == JsonToken.VALUE_STRING && "downloadUri".equals(parser.getCurrentName())
+					&& isDownloadUri(parser.getParsingContext())) {
+
+				if (downloadUris.isEmpty()) {
+					downloadUris = new ArrayList<>();
+				}
+
+				downloadUris.add(new DownloadUri(parser.getText()));
+			}
+		}
+
+		return downloadUris;
+	}
+
+	/**
+	 * @return {@code true} if the context represents an object within {@code downloadUris[]}.
+	 */
+	private static boolean isDownloadUri(JsonStreamContext context) {
+
+		JsonStreamContext downloadUris = context.getParent();
+		JsonStreamContext document = downloadUris != null ? downloadUris.getParent() : null;
+
+		return context.inObject() && downloadUris != null && downloadUris.inArray() //
+				&& document != null && document.inObject() && "downloadUris".equals(document.getCurrentName()) //
+				&& document.getParent() != null && document.getParent().inRoot();
+	}
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.artifactory;
+
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.lang.Nullable;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+/**
+ * Streaming parser for Artifactory build info responses ({@code /api/build/{build}/{number}}). Only
+ * {@code buildInfo.modules[].id} and {@code buildInfo.modules[].artifacts[]} are extracted from the token stream while
+ * all other content (dependencies, environment, VCS details) is skipped without being materialized. Memory consumption
+ * is therefore bounded by the extracted modules and not by the response size.
+ * <p>
+ * Instances are stateful and must be used for a single response only.
+ *
+ * @author Mark Paluch
+ */
+class BuildInfoParser {
+
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	private final JsonParser parser;
+
+	private final ByteArrayFeeder feeder;
+
+	private int depth;
+
+	private int moduleDepth = -1;
+
+	private int artifactDepth = -1;
+
+	private @Nullable String moduleId;
+
+	private List<BuildInfoArtifact> artifacts = new ArrayList<>();
+
+	private @Nullable String name, type, sha1, md5, sha256;
+
+	private BuildInfoParser() {
+
+		try {
+			this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		this.feeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
+	}
+
+	/**
+	 * Parse a build info response body into {@link BuildInfoModule}s. Modules are emitted as soon as they are parsed
+	 * completely. Consumed {@link DataBuffer}s are released.
+	 * @param body the response body.
+	 * @return the parsed modules.
+	 */
+	static Flux<BuildInfoModule> parse(Flux<DataBuffer> body) {
+
+		return Flux.defer(() -> {
+
+			BuildInfoParser parser = new BuildInfoParser();
+
+			return body.concatMapIterable(parser::feed) //
+					.concatWith(Flux.defer(() -> Flux.fromIterable(parser.endOfInput())));
+		}).doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+	}
+
+	private List<BuildInfoModule> feed(DataBuffer dataBuffer) {
+
+		try {
+
+			byte[] bytes = new byte[dataBuffer.readableByteCount()];
+			dataBuffer.read(bytes);
+			feeder.feedInput(bytes, 0, bytes.length);
+
+			return drain();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot parse build info", e);
+		} finally {
+			DataBufferUtils.release(dataBuffer);
+		}
+	}
+
+	private List<BuildInfoModule> endOfInput() {
+
+		feeder.endOfInput();
+
+		try {
+
+			List<BuildInfoModule> modules = drain();
+
+			if (depth != 0) {
+				throw new IllegalStateException("Cannot parse build info: Incomplete JSON document");
+			}
+
+			parser.close();
+			return modules;
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot parse build info", e);
+		}
+	}
+
+	private List<BuildInfoModule> drain() throws IOException {
+
+		List<BuildInfoModule> modules = Collections.emptyList();
+		JsonToken token;
+
+		while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+
+			switch (token) {
+
+			case START_OBJECT:
+
+				depth++;
+
+				if (moduleDepth == -1 && isModule(parser.getParsingContext())) {
+					moduleDepth = depth;
+					moduleId = null;
+					artifacts = new ArrayList<>();
+				} else if (moduleDepth != -1 && artifactDepth == -1 && isArtifact(parser.getParsingContext())) {
+					artifactDepth = depth;
+					name = type = sha1 = md5 = sha256 = null;
+				}
+				break;
+
+			case END_OBJECT:
+
+				if (depth == artifactDepth) {
+					artifacts.add(new BuildInfoArtifact(required(name, "name"), required(type, "type"),
+							required(sha1, "sha1"), required(md5, "md5"), sha256));
+					artifactDepth = -1;
+				} else if (depth == moduleDepth) {
+
+					if (modules.isEmpty()) {
+						modules = new ArrayList<>();
+					}
+
+					modules.add(BuildInfoModule.of(required(moduleId, "id"), artifacts));
+					moduleDepth = -1;
+				}
+
+				depth--;
+				break;
+
+			case START_ARRAY:
+				depth++;
+				break;
+
+			case END_ARRAY:
+				depth--;
+				break;
+
+			case VALUE_STRING:
+
+				if (depth == artifactDepth) {
+					readArtifactField(parser.getCurrentName(), parser.getText());
+				} else if (depth == moduleDepth && "id".equals(parser.getCurrentName())) {
+					moduleId = parser.getText();
+				}
+				break;
+
+			default:
+			}
+		}
+
+		return modules;
+	}
+
+	private void readArtifactField(String field, String value) {
+
+		switch (field) {
+		case "name":
+			name = value;
+			break;
+		case "type":
+			type = value;
+			break;
+		case "sha1":
+			sha1 = value;
+			break;
+		case "md5":
+			md5 = value;
+			break;
+		case "sha256":
+			sha256 = value;
+			break;
+		default:
+		}
+	}
+
+	private static String required(@Nullable String value, String field) {
+
+		if (value == null) {
+			throw new IllegalStateException(String.format("Cannot parse build info: Missing %s", field));
+		}
+
+		return value;
+	}
+
+	/**
+	 * @return {@code true} if the context represents an object within {@code buildInfo.modules[]}.
+	 */
+	private static boolean isModule(JsonStreamContext context) {
+
+		JsonStreamContext modules = context.getParent();
+		JsonStreamContext buildInfo = modules != null ? modules.getParent() : null;
+		JsonStreamContext document = buildInfo != null ? buildInfo.getParent() : null;
+
+		return modules != null && modules.inArray() //
+				&& buildInfo != null && buildInfo.inObject() && "modules".equals(buildInfo.getCurrentName()) //
+				&& document != null && document.inObject() && "buildInfo".equals(document.getCurrentName()) //
+				&& document.getParent() != null && document.getParent().inRoot();
+	}
+
+	/**
+	 * @return {@code true} if the context represents an object within {@code artifacts[]} of a module.
+	 */
+	private static boolean isArtifact(JsonStreamContext context) {
+
+		JsonStreamContext artifacts = context.getParent();
+		JsonStreamContext module = artifacts != null ? artifacts.getParent() : null;
+
+		return artifacts != null && artifacts.inArray() //
+				&& module != null && module.inObject() && "artifacts".equals(module.getCurrentName()) //
+				&& isModule(module);
+	}
+}
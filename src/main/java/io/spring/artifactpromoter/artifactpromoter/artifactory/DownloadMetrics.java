@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.artifactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the download stage. Buffers are received from the HTTP client's pooled allocator and written to disk
+ * without copying. Write latency is measured per write on the file channel and excludes the time spent waiting for the
+ * network. Throughput relates written bytes to the wall-clock time of download stages. Counters are cumulative across
+ * downloads and safe for concurrent updates.
+ *
+ * @author Mark Paluch
+ */
+public class DownloadMetrics {
+
+	private final LongAdder files = new LongAdder();
+
+	private final LongAdder buffers = new LongAdder();
+
+	private final LongAdder bytesWritten = new LongAdder();
+
+	private final LongAdder writes = new LongAdder();
+
+	private final LongAdder writeNanos = new LongAdder();
+
+	private final LongAccumulator maxWriteNanos = new LongAccumulator(Math::max, 0);
+
+	private final LongAdder syncs = new LongAdder();
+
+	private final LongAdder syncNanos = new LongAdder();
+
+	private final LongAdder elapsedNanos = new LongAdder();
+
+	void recordFile(long buffers, long bytes) {
+
+		this.files.increment();
+		this.buffers.add(buffers);
+		this.bytesWritten.add(bytes);
+	}
+
+	void recordWrite(long nanos) {
+
+		this.writes.increment();
+		this.writeNanos.add(nanos);
+		this.maxWriteNanos.accumulate(nanos);
+	}
+
+	void recordSync(long nanos) {
+		syncs.increment();
+		syncNanos.add(nanos);
+	}
+
+	void recordElapsed(long nanos) {
+		elapsedNanos.add(nanos);
+	}
+
+	/**
+	 * @return total number of written files.
+	 */
+	public long getFiles() {
+		return files.sum();
+	}
+
+	/**
+	 * @return total number of received buffers.
+	 */
+	public long getBuffers() {
+		return buffers.sum();
+	}
+
+	/**
+	 * @return total number of bytes written to disk.
+	 */
+	public long getBytesWritten() {
+		return bytesWritten.sum();
+	}
+
+	/**
+	 * @return total number of writes on file channels.
+	 */
+	public long getWrites() {
+		return writes.sum();
+	}
+
+	/**
+	 * @return number of module flushes.
+	 */
+	public long getSyncs() {
+		return syncs.sum();
+	}
+
+	/**
+	 * @return time spent flushing modules.
+	 */
+	public long getSyncTime(TimeUnit unit) {
+		return unit.convert(syncNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return average latency of a single write.
+	 */
+	public long getAverageWriteLatency(TimeUnit unit) {
+
+		long writes = getWrites();
+
+		return writes == 0 ? 0 : unit.convert(writeNanos.sum() / writes, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return maximum latency of a single write.
+	 */
+	public long getMaxWriteLatency(TimeUnit unit) {
+		return unit.convert(maxWriteNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return wall-clock time spent in download stages.
+	 */
+	public long getElapsed(TimeUnit unit) {
+		return unit.convert(elapsedNanos.sum(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return written bytes per second of wall-clock download time.
+	 */
+	public double getThroughput() {
+
+		long nanos = elapsedNanos.sum();
+
+		return nanos == 0 ? 0 : getBytesWritten() / (nanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%d file(s), %d bytes in %d buffer(s) in %d ms (%.1f MB/sec), "
+						+ "%d write(s) with latency avg %d us, max %d us, %d fsync(s) in %d ms",
+				getFiles(), getBytesWritten(), getBuffers(), getElapsed(TimeUnit.MILLISECONDS),
+				getThroughput() / (1024 * 1024), getWrites(), getAverageWriteLatency(TimeUnit.MICROSECONDS),
+				getMaxWriteLatency(TimeUnit.MICROSECONDS), getSyncs(), getSyncTime(TimeUnit.MILLISECONDS));
+	}
+}
@@ -17,11 +17,15 @@ package io.spring.artifactpromoter.artifactpromoter.artifactory;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import io.spring.artifactpromoter.artifactpromoter.ArtifactType;
-import io.spring.artifactpromoter.artifactpromoter.GAVC;
+import io.spring.artifactpromoter.artifactpromoter.MavenRepositoryPath;
 import lombok.Getter;
 
+import org.springframework.lang.Nullable;
+
 /**
+ * Download URI of a build artifact. The URI is parsed into its Maven repository layout components by a reusable
+ * {@link MavenRepositoryPath} when indexing it.
+ *
  * @author Mark Paluch
  */
 @Getter
@@ -34,21 +38,30 @@ class DownloadUri {
 		this.downloadUri = downloadUri;
 	}
 
-	public boolean matches(GAVC gavc, ArtifactType artifactType) {
-
-		if (!downloadUri.contains(gavc.toString(true, "/"))) {
-			return false;
-		}
+	/**
+	 * Parse this URI using {@link MavenRepositoryPath} into an index key.
+	 *
+	 * @param parser the parser to use.
+	 * @return the index key or {@code null} if the URI does not follow the Maven repository layout.
+	 */
+	@Nullable
+	DownloadUriIndex.Key toKey(MavenRepositoryPath parser) {
+		return parser.parse(downloadUri) ? DownloadUriIndex.Key.of(parser) : null;
+	}
 
-		if (artifactType.equals(ArtifactType.JAR)) {
+	/**
+	 * Test whether the directory of this URI ends with {@code gavPath}.
+	 *
+	 * @param gavPath GAV path in the Maven repository layout starting with a slash, e.g.
+	 *          {@code /io/projectreactor/netty/reactor-netty/1.0.4-SNAPSHOT}.
+	 * @return
+	 */
+	boolean isInDirectory(String gavPath) {
 
-			if (ArtifactType.knownClassifiers().stream()
-					.anyMatch(it -> it.matches(downloadUri))) {
-				return false;
-			}
-		}
+		int directoryEnd = downloadUri.lastIndexOf('/');
 
-		return artifactType.matches(downloadUri);
+		return directoryEnd >= gavPath.length()
+				&& downloadUri.regionMatches(directoryEnd - gavPath.length(), gavPath, 0, gavPath.length());
 	}
 
 }
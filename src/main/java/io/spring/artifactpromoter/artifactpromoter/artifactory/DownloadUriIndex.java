@@ -0,0 +1,141 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.artifactory;
+
+import io.spring.artifactpromoter.artifactpromoter.ArtifactType;
+import io.spring.artifactpromoter.artifactpromoter.GAVC;
+import io.spring.artifactpromoter.artifactpromoter.MavenRepositoryPath;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Hash index of {@link DownloadUri}s keyed by artifactId, version, classifier and extension. Each URI is parsed once
+ * using {@link MavenRepositoryPath} when constructing the index so that lookups do not depend on the number of URIs.
+ * Instances are not thread-safe.
+ *
+ * @author Mark Paluch
+ */
+class DownloadUriIndex {
+
+	private final Map<Key, List<DownloadUri>> index;
+
+	private final MavenRepositoryPath parser;
+
+	private DownloadUriIndex(Map<Key, List<DownloadUri>> index, MavenRepositoryPath parser) {
+		this.index = index;
+		this.parser = parser;
+	}
+
+	/**
+	 * Create a new {@link DownloadUriIndex} from {@link DownloadUri}s. URIs that do not follow the Maven repository
+	 * layout are not indexed.
+	 *
+	 * @param downloadUris
+	 * @return
+	 */
+	static DownloadUriIndex of(List<DownloadUri> downloadUris) {
+
+		Map<Key, List<DownloadUri>> index = new HashMap<>(downloadUris.size() * 2);
+		MavenRepositoryPath parser = new MavenRepositoryPath();
+
+		for (DownloadUri downloadUri : downloadUris) {
+
+			Key key = downloadUri.toKey(parser);
+
+			if (key != null) {
+				index.computeIfAbsent(key, it -> new ArrayList<>(1)).add(downloadUri);
+			}
+		}
+
+		return new DownloadUriIndex(index, parser);
+	}
+
+	/**
+	 * Resolve the download URI for an artifact of the module identified by {@link GAVC}. The artifact name is used to
+	 * determine classifier and extension, falling back to {@link ArtifactType} if the name does not follow the Maven
+	 * naming scheme.
+	 *
+	 * @param gavc the module identifier.
+	 * @param artifactName the artifact name as reported by the build info.
+	 * @param artifactType the artifact type.
+	 * @return the download URI.
+	 * @throws IllegalStateException if no or more than one download URI matches.
+	 */
+	String getRequiredDownloadUri(GAVC gavc, String artifactName, ArtifactType artifactType) {
+
+		Key key = parser.parseFilename(artifactName, gavc.getArtifactId(), gavc.getVersion()) ? Key.of(parser)
+				: Key.of(gavc.getArtifactId(), gavc.getVersion(), artifactType.getClassifier(), artifactType.getExtension());
+
+		String gavPath = "/" + gavc.toString(true, "/");
+		DownloadUri match = null;
+
+		for (DownloadUri candidate : index.getOrDefault(key, Collections.emptyList())) {
+
+			if (!candidate.isInDirectory(gavPath)) {
+				continue;
+			}
+
+			if (match != null) {
+				throw new IllegalStateException(String.format("Ambiguous Download URIs for %s, type %s: %s, %s", gavc,
+						artifactType, match.getDownloadUri(), candidate.getDownloadUri()));
+			}
+
+			match = candidate;
+		}
+
+		if (match == null) {
+			throw new IllegalStateException(String.format("Cannot find Download URI for %s, type %s", gavc, artifactType));
+		}
+
+		return match.getDownloadUri();
+	}
+
+	/**
+	 * Index key identifying an artifact file within a repository.
+	 */
+	@Value(staticConstructor = "of")
+	static class Key {
+
+		String artifactId;
+		String version;
+		@Nullable String classifier;
+		String extension;
+
+		/**
+		 * Create a {@link Key} from a successfully parsed {@link MavenRepositoryPath}. Uses the base version so that
+		 * timestamped snapshots map to their {@code -SNAPSHOT} version.
+		 *
+		 * @param path
+		 * @return
+		 */
+		static Key of(MavenRepositoryPath path) {
+
+			String classifier = path.getClassifier();
+
+			return of(path.getArtifactId(), path.getBaseVersion(),
+					classifier != null ? classifier.toLowerCase(Locale.ROOT) : null,
+					path.getExtension().toLowerCase(Locale.ROOT));
+		}
+	}
+}
@@ -25,35 +25,32 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Predicate;
 
-import org.jfrog.build.api.Build;
-
 /**
- * Value object capturing raw {@link Build} and {@link DownloadUri} details.
+ * Value object capturing raw {@link BuildInfoModule build info modules} and {@link DownloadUri} details.
  *
  * @author Mark Paluch
  */
 @RequiredArgsConstructor
 class DownloadableBuild {
 
-	private final Build build;
+	private final List<BuildInfoModule> modules;
 	private final List<DownloadUri> downloadUris;
 
 	/**
-	 * Create a new {@link DownloadableBuild} from {@link Build} and {@link DownloadUri}s.
+	 * Create a new {@link DownloadableBuild} from {@link BuildInfoModule}s and {@link DownloadUri}s.
 	 *
-	 * @param build the build info
+	 * @param modules the build info modules
 	 * @param downloadUris list of download URIs
 	 */
-	static DownloadableBuild from(Build build, List<DownloadUri> downloadUris) {
-		return new DownloadableBuild(build, downloadUris);
+	static DownloadableBuild from(List<BuildInfoModule> modules, List<DownloadUri> downloadUris) {
+		return new DownloadableBuild(modules, downloadUris);
 	}
 
 	/**
-	 * Construct {@link Modules} from an Artifactory {@link Build build info} and {@code downloadUris}. Requires that each
-	 * valid artifact maps to a download URI.
+	 * Construct {@link Modules} from Artifactory {@link BuildInfoModule build info modules} and {@code downloadUris}.
+	 * Requires that each valid artifact maps to exactly one download URI. Download URIs are resolved through a
+	 * {@link DownloadUriIndex}.
 	 *
-	 * @param build the build info
-	 * @param downloadUris list of download URIs
 	 * @param artifactFilter filter to exclude artifacts by name (where the name is e.g.
 	 *          {@code reactor-netty-core-1.0.4-SNAPSHOT-original.jar}
 	 * @return the built modules.
@@ -61,10 +58,11 @@ class DownloadableBuild {
 	Modules toModules(Predicate<String> artifactFilter) {
 
 		List<io.spring.artifactpromoter.artifactpromoter.Module> modules = new ArrayList<>();
+		DownloadUriIndex index = DownloadUriIndex.of(downloadUris);
 
-		for (org.jfrog.build.api.Module module : build.getModules()) {
+		for (BuildInfoModule module : this.modules) {
 
-			io.spring.artifactpromoter.artifactpromoter.Module builtModule = toModule(artifactFilter, module);
+			io.spring.artifactpromoter.artifactpromoter.Module builtModule = toModule(artifactFilter, index, module);
 
 			modules.add(builtModule);
 		}
@@ -72,25 +70,25 @@ class DownloadableBuild {
 		return Modules.of(modules);
 	}
 
-	private io.spring.artifactpromoter.artifactpromoter.Module toModule(Predicate<String> artifactFilter,
-			org.jfrog.build.api.Module module) {
+	private static io.spring.artifactpromoter.artifactpromoter.Module toModule(Predicate<String> artifactFilter,
+			DownloadUriIndex index, BuildInfoModule module) {
 
 		List<Artifact> artifacts = new ArrayList<>();
 		GAVC gavc = GAVC.of(module.getId());
 		io.spring.artifactpromoter.artifactpromoter.Module builtModule = io.spring.artifactpromoter.artifactpromoter.Module
 				.of(gavc, artifacts);
 
-		for (org.jfrog.build.api.Artifact artifact : module.getArtifacts()) {
+		for (BuildInfoArtifact artifact : module.getArtifacts()) {
 
 			if (!artifactFilter.test(artifact.getName())) {
 				continue;
 			}
 
 			ArtifactType artifactType = ArtifactType.of(artifact.getType());
-			String downloadUri = getRequiredDownloadUri(downloadUris, gavc, artifactType);
+			String downloadUri = index.getRequiredDownloadUri(gavc, artifact.getName(), artifactType);
 
 			Artifact builtArtifact = new Artifact(artifact.getName(), artifact.getSha1(), artifact.getMd5(), downloadUri,
-					artifactType);
+					artifactType, artifact.getSha256());
 
 			artifacts.add(builtArtifact);
 		}
@@ -101,16 +99,4 @@ class DownloadableBuild {
 
 		return builtModule;
 	}
-
-	private static String getRequiredDownloadUri(List<DownloadUri> downloadUris, GAVC gavc, ArtifactType artifactType) {
-
-		for (DownloadUri downloadUri : downloadUris) {
-
-			if (downloadUri.matches(gavc, artifactType)) {
-				return downloadUri.getDownloadUri();
-			}
-		}
-
-		throw new IllegalStateException(String.format("Cannot find Download URI for %s, type %s", gavc, artifactType));
-	}
 }
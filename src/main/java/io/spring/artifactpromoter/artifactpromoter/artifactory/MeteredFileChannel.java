@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.artifactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileLock;
+import java.util.concurrent.Future;
+import java.util.function.LongConsumer;
+
+/**
+ * {@link AsynchronousFileChannel} that reports the latency of each write submitted with a {@link CompletionHandler},
+ * as used by {@link org.springframework.core.io.buffer.DataBufferUtils}, from submitting the write until its
+ * completion. The time spent waiting for data from the network is not included. All other operations are delegated
+ * unchanged.
+ *
+ * @author Mark Paluch
+ */
+class MeteredFileChannel extends AsynchronousFileChannel {
+
+	private final AsynchronousFileChannel delegate;
+
+	private final LongConsumer writeListener;
+
+	MeteredFileChannel(AsynchronousFileChannel delegate, LongConsumer writeListener) {
+		this.delegate = delegate;
+		this.writeListener = writeListener;
+	}
+
+	@Override
+	public <A> void write(ByteBuffer src, long position, A attachment, CompletionHandler<Integer, ? super A> handler) {
+
+		long start = System.nanoTime();
+
+		delegate.write(src, position, attachment, new CompletionHandler<Integer, A>() {
+
+			@Override
+			public void completed(Integer result, A attachment) {
+				writeListener.accept(System.nanoTime() - start);
+				handler.completed(result, attachment);
+			}
+
+			@Override
+			public void failed(Throwable exc, A attachment) {
+				handler.failed(exc, attachment);
+			}
+		});
+	}
+
+	@Override
+	public Future<Integer> write(ByteBuffer src, long position) {
+		return delegate.write(src, position);
+	}
+
+	@Override
+	public long size() throws IOException {
+		return delegate.size();
+	}
+
+	@Override
+	public AsynchronousFileChannel truncate(long size) throws IOException {
+
+		delegate.truncate(size);
+		return this;
+	}
+
+	@Override
+	public void force(boolean metaData) throws IOException {
+		delegate.force(metaData);
+	}
+
+	@Override
+	public <A> void lock(long position, long size, boolean shared, A attachment,
+			CompletionHandler<FileLock, ? super A> handler) {
+		delegate.lock(position, size, shared, attachment, handler);
+	}
+
+	@Override
+	public Future<FileLock> lock(long position, long size, boolean shared) {
+		return delegate.lock(position, size, shared);
+	}
+
+	@Override
+	public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+		return delegate.tryLock(position, size, shared);
+	}
+
+	@Override
+	public <A> void read(ByteBuffer dst, long position, A attachment, CompletionHandler<Integer, ? super A> handler) {
+		delegate.read(dst, position, attachment, handler);
+	}
+
+	@Override
+	public Future<Integer> read(ByteBuffer dst, long position) {
+		return delegate.read(dst, position);
+	}
+
+	@Override
+	public boolean isOpen() {
+		return delegate.isOpen();
+	}
+
+	@Override
+	public void close() throws IOException {
+		delegate.close();
+	}
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.artifactory;
+
+import io.spring.artifactpromoter.artifactpromoter.Artifact;
+import io.spring.artifactpromoter.artifactpromoter.Checksums;
+import lombok.Value;
+
+/**
+ * Result of {@link ArtifactoryClient#stream streaming} an {@link Artifact}: Verified checksums and the ASCII-armored
+ * PGP signature computed while streaming.
+ *
+ * @author Mark Paluch
+ */
+@Value(staticConstructor = "of")
+public class StreamedArtifact {
+
+	Artifact artifact;
+	Checksums checksums;
+	String signature;
+}
@@ -13,23 +13,21 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package io.spring.artifactpromoter.artifactpromoter.artifactory;
+package io.spring.artifactpromoter.artifactpromoter.nexus;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Getter;
-import org.jfrog.build.api.Build;
+import lombok.Data;
 
 /**
+ * Response of a bundle upload listing the staging repositories created for the bundle.
+ *
  * @author Mark Paluch
  */
+@Data
 @JsonIgnoreProperties(ignoreUnknown = true)
-@Getter
-class BuildInfoRepresentation {
-
-	private final Build buildInfo;
-
-	BuildInfoRepresentation(@JsonProperty("buildInfo") Build buildInfo) {
-		this.buildInfo = buildInfo;
-	}
+class BundleUploadResponse {
+	private final List<String> repositoryUris = new ArrayList<>();
 }
@@ -15,32 +15,58 @@
  */
 package io.spring.artifactpromoter.artifactpromoter.nexus;
 
+import io.netty.buffer.PooledByteBufAllocator;
 import io.spring.artifactpromoter.artifactpromoter.Artifact;
 import io.spring.artifactpromoter.artifactpromoter.ArtifactPromoterProperties;
 import io.spring.artifactpromoter.artifactpromoter.GAVC;
+import io.spring.artifactpromoter.artifactpromoter.HttpClientResources;
+import io.spring.artifactpromoter.artifactpromoter.Module;
 import io.spring.artifactpromoter.artifactpromoter.Modules;
 import io.spring.artifactpromoter.artifactpromoter.PromotionContext;
 import io.spring.artifactpromoter.artifactpromoter.WorkspaceUtils;
 import lombok.extern.apachecommons.CommonsLog;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.core.io.buffer.DataBufferFactory;
 import org.springframework.core.io.buffer.DataBufferUtils;
-import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.client.reactive.ClientHttpRequest;
 import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunctions;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 /**
@@ -48,24 +74,49 @@ import org.springframework.web.reactive.function.client.WebClientResponseExcepti
  *
  * @author Mark Paluch
  */
+@Component
 @CommonsLog
-public class NexusClient {
+public class NexusClient implements DisposableBean {
 
 	private static final String SELECT_STAGING_PROFILE = "%s/service/local/staging/profile_evaluate?a={artifactId}&t=maven2&g={groupId}&v={version}";
+	private static final String STAGING_PROFILES = "%s/service/local/staging/profiles";
+	private static final String REPOSITORY_TARGETS = "%s/service/local/repo_targets";
 	private static final String STAGING_START = "%s/service/local/staging/profiles/{profileId}/start";
 	private static final String STAGING_CLOSE = "%s/service/local/staging/profiles/{profileId}/finish";
 
 	private static final String DEPLOY_BY_REPOSITORY = "%s/service/local/staging/deployByRepositoryId/{repositoryId}/%s/%s";
+	private static final String REPOSITORY_CONTENT = "%s/service/local/repositories/{repositoryId}/content/%s/%s";
+	private static final String BUNDLE_UPLOAD = "%s/service/local/staging/bundle_upload";
+
+	/**
+	 * Bytes of the bundle archive buffered between the archive writer and the request body.
+	 */
+	static final int BUNDLE_PIPE_SIZE = 256 * 1024;
+
+	static final int BUNDLE_BUFFER_SIZE = 64 * 1024;
 
-	private final DataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
+	private static final Pattern NEXUS_SHA1_ETAG = Pattern.compile("\\{SHA1\\{([0-9a-fA-F]{40})}}");
+	private static final String X_CHECKSUM_SHA1 = "X-Checksum-Sha1";
+	private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
+
+	private final DataBufferFactory pooledBufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
 	private final ArtifactPromoterProperties.Nexus nexusProperties;
 	private final File workingDirectory;
+	private final long mappingThreshold;
+	private final boolean zeroCopy;
+	private final HttpClientResources httpResources;
 	private final WebClient webClient;
+	private final Mono<StagingProfileTable> stagingProfileTable;
+	private final StagingProfileCache stagingProfileCache;
 
 	public NexusClient(ArtifactPromoterProperties properties) {
 
 		this.nexusProperties = properties.getNexus();
 		this.workingDirectory = properties.getWorkingDirectory();
+		this.mappingThreshold = properties.getMappingThreshold().toBytes();
+
+		// file regions bypass the TLS handler, encrypted connections require buffers
+		this.zeroCopy = !nexusProperties.getAddress().regionMatches(true, 0, "https:", 0, 6);
 
 		ExchangeFilterFunction exchangeFilterFunction = ExchangeFilterFunctions
 				.basicAuthentication(nexusProperties.getUsername(), nexusProperties.getPassword());
@@ -76,17 +127,50 @@ public class NexusClient {
 			clientCodecConfigurer.customCodecs().register(decoder);
 		}).build();
 
-		this.webClient = WebClient.builder().filter(exchangeFilterFunction).exchangeStrategies(strategies).build();
+		this.httpResources = HttpClientResources.create("nexus", nexusProperties.getHttp());
+		this.webClient = WebClient.builder().clientConnector(httpResources.getConnector())
+				.filter(exchangeFilterFunction).exchangeStrategies(strategies).build();
+
+		Duration stagingProfileTtl = nexusProperties.getStagingProfileTtl();
+		this.stagingProfileTable = fetchStagingProfileTable().cache(it -> stagingProfileTtl, e -> Duration.ZERO,
+				() -> Duration.ZERO);
+		this.stagingProfileCache = new StagingProfileCache(stagingProfileTtl);
+	}
+
+	@Override
+	public void destroy() {
+		httpResources.destroy();
 	}
 
 	/**
-	 * Select the {@link StagingProfile} to use for the staging operation.
+	 * Select the {@link StagingProfile} to use for the staging operation. Staging profiles are fetched once and matched
+	 * locally by the repository target patterns against representative artifact paths of the module identified by
+	 * {@link GAVC}. The selected profile is cached by module coordinates. Falls back to evaluating the staging profile
+	 * remotely if the profile cannot be decided locally, for example if the user is not permitted to read repository
+	 * targets, if fetching staging profiles fails with a transport error or if the patterns distinguish artifacts of
+	 * the same module. Transport errors are not cached, the next selection fetches the staging profiles again.
 	 *
 	 * @param gavc
 	 * @return
 	 */
 	public Mono<StagingProfile> selectStagingProfile(GAVC gavc) {
-		return selectStagingProfile(gavc.getGroupId(), gavc.getArtifactId(), gavc.getArtifactId());
+
+		String coordinates = gavc.toString(":");
+		StagingProfile cached = stagingProfileCache.get(coordinates);
+
+		if (cached != null) {
+			return Mono.just(cached);
+		}
+
+		return stagingProfileTable.onErrorResume(WebClientRequestException.class, e -> {
+
+			log.warn(String.format("Cannot fetch staging profiles, evaluating profile of %s remotely: %s", coordinates,
+					e.getMessage()));
+			return Mono.just(StagingProfileTable.empty());
+		}).flatMap(table -> Mono.justOrEmpty(table.match(gavc))) //
+				.switchIfEmpty(Mono.defer(
+						() -> selectStagingProfile(gavc.getGroupId(), gavc.getArtifactId(), gavc.getVersion()))) //
+				.doOnNext(it -> stagingProfileCache.put(coordinates, it));
 	}
 
 	/**
@@ -114,6 +198,33 @@ public class NexusClient {
 				});
 	}
 
+	/**
+	 * Fetch the staging profiles with the patterns of their repository targets. Resolves an empty table if the
+	 * profiles or targets cannot be read. Targets are fetched first as they require elevated permissions.
+	 */
+	private Mono<StagingProfileTable> fetchStagingProfileTable() {
+
+		Mono<StagingProfiles> profiles = webClient.get()
+				.uri(String.format(STAGING_PROFILES, nexusProperties.getAddress())) //
+				.accept(MediaType.APPLICATION_JSON).retrieve() //
+				.bodyToMono(StagingProfiles.class);
+
+		Mono<RepositoryTargets> targets = webClient.get()
+				.uri(String.format(REPOSITORY_TARGETS, nexusProperties.getAddress())) //
+				.accept(MediaType.APPLICATION_JSON).retrieve() //
+				.bodyToMono(RepositoryTargets.class);
+
+		// sequential so that a failing request does not cancel the other one in flight
+		return targets.zipWhen(it -> profiles, (t, p) -> StagingProfileTable.of(p, t)) //
+				.doOnNext(it -> log.info(String.format("Fetched %d staging profile(s)", it.size())))
+				.onErrorResume(WebClientResponseException.class, e -> {
+
+					log.warn(String.format("Cannot fetch staging profiles, evaluating profiles remotely: %s %s",
+							e.getRawStatusCode(), e.getResponseBodyAsString()));
+					return Mono.just(StagingProfileTable.empty());
+				});
+	}
+
 	/**
 	 * Start the staging process by creating a {@link StagingRepository}.
 	 *
@@ -138,7 +249,16 @@ public class NexusClient {
 	}
 
 	/**
-	 * Upload a {@link io.spring.artifactpromoter.artifactpromoter.Module} to the {@link StagingRepository}.
+	 * Upload a {@link io.spring.artifactpromoter.artifactpromoter.Module} to the {@link StagingRepository}. Concurrent
+	 * uploads are limited by the adaptive concurrency limit of the Nexus endpoint.
+	 * <p>
+	 * When {@link ArtifactPromoterProperties.Nexus#isIncrementalUpload() uploading incrementally}, each file is checked
+	 * with a {@code HEAD} request first and skipped if the staging repository already contains it with the same size
+	 * and SHA-1 checksum.
+	 * <p>
+	 * Checksum files are uploaded from the checksums reported by the build info without reading them from disk.
+	 * Signatures and other small files are read at once and sent as a single pooled buffer. Artifacts are transferred
+	 * as zero-copy file region over plain HTTP and read into pooled buffers sized by the file size over HTTPS.
 	 *
 	 * @param stagingRepository
 	 * @param modules
@@ -150,6 +270,7 @@ public class NexusClient {
 		File buildDirectory = WorkspaceUtils.getContextDirectory(workingDirectory, context);
 
 		Map<String, String> parameters = Collections.singletonMap("repositoryId", stagingRepository.getRepositoryId());
+		LongAdder skipped = new LongAdder();
 
 		return Flux.fromIterable(modules.getModules()).flatMap(module -> {
 
@@ -158,12 +279,27 @@ public class NexusClient {
 
 			return Flux.fromIterable(module.getArtifacts()).flatMap(artifact -> {
 
-				Map<String, File> filesToUpload = getFilesToUpload(moduleDirectory, artifact);
+				List<UploadPayload> payloads = getPayloads(moduleDirectory, artifact);
 
 				log.info(String.format("Uploading %s ...", artifact.getName()));
 
-				Flux<Void> uploads = Flux.fromIterable(filesToUpload.entrySet())
-						.flatMap(it -> uploadFile(parameters, gavc, it.getKey(), it.getValue()));
+				Flux<Void> uploads = Flux.fromIterable(payloads).flatMap(payload -> {
+
+					if (!nexusProperties.isIncrementalUpload()) {
+						return upload(parameters, gavc, payload);
+					}
+
+					return isPresent(parameters, gavc, payload).flatMap(present -> {
+
+						if (present) {
+							skipped.increment();
+							log.debug(String.format("Skipping %s, already present in staging repository", payload));
+							return Mono.empty();
+						}
+
+						return upload(parameters, gavc, payload);
+					});
+				});
 
 				return uploads.then()
 						.onErrorMap(WebClientResponseException.class,
@@ -172,19 +308,132 @@ public class NexusClient {
 						.doOnSuccess(it -> log.info(String.format("Upload %s done", artifact.getName())));
 			});
 
-		}).then();
+		}).then().doOnSuccess(v -> {
+
+			if (nexusProperties.isIncrementalUpload()) {
+				log.info(String.format("Skipped %d file(s) already present in %s", skipped.sum(),
+						stagingRepository.getRepositoryId()));
+			}
+
+			log.info(String.format("Upload complete. Concurrency %s", httpResources.getConcurrencyLimiter()));
+		});
 	}
 
 	/**
-	 * Finish the staging process by closing a {@link StagingRepository}.
+	 * Upload a single file of {@link GAVC} streaming its content from {@code body}, for example while relaying it from
+	 * another repository. Response errors are propagated as {@link WebClientResponseException} so that the caller can
+	 * retry transient failures with a new body.
 	 *
 	 * @param stagingRepository
+	 * @param gavc
+	 * @param filename the remote file name.
+	 * @param contentLength the content length or {@code -1} if unknown.
+	 * @param body the file content.
 	 * @return
 	 */
-	public Mono<Void> closeStagingRepository(StagingRepository stagingRepository) {
+	public Mono<Void> upload(StagingRepository stagingRepository, GAVC gavc, String filename, long contentLength,
+			Flux<DataBuffer> body) {
 
 		Map<String, String> parameters = Collections.singletonMap("repositoryId", stagingRepository.getRepositoryId());
 
+		return upload(parameters, gavc, filename, contentLength, BodyInserters.fromDataBuffers(body));
+	}
+
+	/**
+	 * Upload a single file of {@link GAVC} from text content held in memory, such as a checksum or signature.
+	 *
+	 * @param stagingRepository
+	 * @param gavc
+	 * @param filename the remote file name.
+	 * @param content the file content.
+	 * @return
+	 */
+	public Mono<Void> upload(StagingRepository stagingRepository, GAVC gavc, String filename, String content) {
+
+		Map<String, String> parameters = Collections.singletonMap("repositoryId", stagingRepository.getRepositoryId());
+
+		return upload(parameters, gavc, UploadPayload.of(filename, content));
+	}
+
+	/**
+	 * @return {@code true} if files are uploaded as a single bundle. See
+	 *         {@link ArtifactPromoterProperties.Nexus#isBundleUpload()}.
+	 */
+	public boolean isBundleUpload() {
+		return nexusProperties.isBundleUpload();
+	}
+
+	/**
+	 * Upload the files of a {@link Module} as a single-component bundle archive with one request instead of one request
+	 * per file. Nexus 2 {@code bundle_upload} expects the POM, artifacts and their signatures at the root of the
+	 * archive; checksum files are generated by Nexus and not included. The archive is written on the fly while it is
+	 * sent, without storing it on disk or holding it in memory. Files are stored uncompressed as artifacts are archives
+	 * already. Transient failures are retried by sending the archive again.
+	 * <p>
+	 * Nexus selects the staging profile, creates the {@link StagingRepository} for the bundle and closes it once the
+	 * upload completes. Each bundle results in its own staging repository.
+	 *
+	 * @param module
+	 * @param context
+	 * @return the staging repository created for the bundle.
+	 */
+	public Mono<StagingRepository> uploadBundle(Module module, PromotionContext context) {
+
+		File moduleDirectory = WorkspaceUtils
+				.getModuleDirectory(WorkspaceUtils.getContextDirectory(workingDirectory, context), module);
+		Map<String, UploadPayload> entries = new LinkedHashMap<>();
+
+		for (Artifact artifact : module.getArtifacts()) {
+			for (UploadPayload payload : getPayloads(moduleDirectory, artifact)) {
+
+				if (!isChecksumFile(payload.getFilename())) {
+					entries.put(payload.getFilename(), payload);
+				}
+			}
+		}
+
+		if (entries.keySet().stream().noneMatch(it -> it.endsWith(".pom"))) {
+			return Mono.error(new StagingException(
+					String.format("Cannot upload bundle of %s: Bundle requires a POM", module.getId())));
+		}
+
+		log.info(String.format("Uploading bundle of %s with %d file(s) ...", module.getId(), entries.size()));
+
+		MultipartBodyBuilder builder = new MultipartBodyBuilder();
+		builder.asyncPart("file", createBundle(entries), DataBuffer.class).filename("bundle.zip")
+				.contentType(APPLICATION_ZIP);
+
+		return httpResources.getConcurrencyLimiter().run(webClient.post() //
+				.uri(String.format(BUNDLE_UPLOAD, nexusProperties.getAddress())) //
+				.accept(MediaType.APPLICATION_JSON) //
+				.body(BodyInserters.fromMultipartData(builder.build())) //
+				.retrieve() //
+				.bodyToMono(BundleUploadResponse.class)) //
+				.retryWhen(httpResources.getRetry()) //
+				.map(it -> {
+
+					if (it.getRepositoryUris().isEmpty()) {
+						throw new StagingException("Bundle upload did not create a staging repository");
+					}
+
+					return StagingRepository.of(getRepositoryId(it.getRepositoryUris().get(0)));
+				}).onErrorMap(WebClientResponseException.class,
+						e -> new StagingException("Cannot upload bundle: " + e.getResponseBodyAsString(), e))
+				.doOnSuccess(it -> log.info(String.format("Bundle upload of %s to %s done. Concurrency %s",
+						module.getId(), it.getRepositoryId(), httpResources.getConcurrencyLimiter())));
+	}
+
+	/**
+	 * Finish the staging process by closing a {@link StagingRepository}.
+	 *
+	 * @param profileId the staging profile the repository was created for.
+	 * @param stagingRepository
+	 * @return
+	 */
+	public Mono<Void> closeStagingRepository(StagingProfile profileId, StagingRepository stagingRepository) {
+
+		Map<String, String> parameters = Collections.singletonMap("profileId", profileId.getProfileId());
+
 		return webClient.post().uri(String.format(STAGING_CLOSE, nexusProperties.getAddress()), parameters)
 				.accept(MediaType.APPLICATION_JSON) //
 				.bodyValue(new StagingRequest(new Staging(stagingRepository.getRepositoryId(), null, null))) //
@@ -195,39 +444,188 @@ public class NexusClient {
 				.then();
 	}
 
-	private Mono<Void> uploadFile(Map<String, String> parameters, GAVC gavc, String filename, File file) {
+	private Mono<Void> upload(Map<String, String> parameters, GAVC gavc, UploadPayload payload) {
+		return upload(parameters, gavc, payload.getFilename(), payload.getLength(),
+				payload.getBody(pooledBufferFactory, zeroCopy));
+	}
 
-		String uri = String.format(DEPLOY_BY_REPOSITORY, nexusProperties.getAddress(), gavc.toString(true, "/"), filename);
+	private Mono<Void> upload(Map<String, String> parameters, GAVC gavc, String filename, long contentLength,
+			BodyInserter<?, ? super ClientHttpRequest> body) {
 
-		Flux<DataBuffer> uploadStream = DataBufferUtils.read(file.toPath(), dataBufferFactory, 256 * 1000);
+		String uri = String.format(DEPLOY_BY_REPOSITORY, nexusProperties.getAddress(), gavc.toString(true, "/"),
+				filename);
 
-		return webClient.put().uri(uri, parameters) //
+		WebClient.RequestBodySpec request = webClient.put().uri(uri, parameters) //
 				.header(HttpHeaders.PRAGMA, "no-cache") //
 				.header(HttpHeaders.CACHE_CONTROL, "no-cache") //
-				.header(HttpHeaders.CONTENT_LENGTH, "" + file.length()) //
-				.contentType(MediaType.APPLICATION_OCTET_STREAM) //
-				.body(uploadStream, DataBuffer.class) //
+				.contentType(MediaType.APPLICATION_OCTET_STREAM);
+
+		if (contentLength >= 0) {
+			request = request.header(HttpHeaders.CONTENT_LENGTH, "" + contentLength);
+		}
+
+		// the response time of large uploads includes the transfer and is not sampled
+		boolean sample = contentLength >= 0 && contentLength <= UploadPayload.IN_MEMORY_THRESHOLD;
+		WebClient.RequestHeadersSpec<?> upload = request.body(body);
+
+		return httpResources.getConcurrencyLimiter().run(responded -> upload //
 				.retrieve() //
-				.bodyToMono(String.class) //
-				.then();
+				.toBodilessEntity() //
+				.doOnNext(it -> {
+					if (sample) {
+						responded.run();
+					}
+				}).then());
+	}
+
+	/**
+	 * Check whether the staging repository contains {@link UploadPayload} with the same size and SHA-1 checksum. The
+	 * local checksum is computed only if the remote size matches and the checksum is not known upfront.
+	 */
+	private Mono<Boolean> isPresent(Map<String, String> parameters, GAVC gavc, UploadPayload payload) {
+
+		String uri = String.format(REPOSITORY_CONTENT, nexusProperties.getAddress(), gavc.toString(true, "/"),
+				payload.getFilename());
+
+		Mono<HttpHeaders> head = httpResources.getConcurrencyLimiter()
+				.run(responded -> webClient.head().uri(uri, parameters).retrieve().toBodilessEntity()
+						.doOnNext(it -> responded.run()).map(HttpEntity::getHeaders))
+				.retryWhen(httpResources.getRetry())
+				.onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty());
+
+		return head.flatMap(headers -> {
+
+			String remoteSha1 = getSha1(headers);
+
+			if (remoteSha1 == null || headers.getContentLength() != payload.getLength()) {
+				return Mono.just(false);
+			}
+
+			return payload.getSha1(mappingThreshold).map(remoteSha1::equalsIgnoreCase);
+		}).defaultIfEmpty(false);
+	}
+
+	/**
+	 * Extract the SHA-1 checksum of a repository file from its response headers. Nexus 2 reports the checksum as
+	 * {@code ETag} in the form of <code>{SHA1{&lt;checksum&gt;}}</code>, other repository managers use
+	 * {@code X-Checksum-Sha1}.
+	 *
+	 * @param headers
+	 * @return the SHA-1 checksum or {@code null} if the headers do not contain a checksum.
+	 */
+	@Nullable
+	static String getSha1(HttpHeaders headers) {
+
+		String checksum = headers.getFirst(X_CHECKSUM_SHA1);
+
+		if (checksum != null) {
+			return checksum;
+		}
+
+		String etag = headers.getETag();
+
+		if (etag == null) {
+			return null;
+		}
+
+		Matcher matcher = NEXUS_SHA1_ETAG.matcher(etag);
+
+		return matcher.find() ? matcher.group(1) : null;
+	}
+
+	/**
+	 * Create the bundle archive content. The archive is written by a worker into a pipe of {@link #BUNDLE_PIPE_SIZE}
+	 * bytes and read from the pipe into pooled buffers as the request body demands it. Each subscription writes the
+	 * archive anew so that a retried request sends the complete archive again.
+	 */
+	private Flux<DataBuffer> createBundle(Map<String, UploadPayload> entries) {
+
+		return Flux.defer(() -> {
+
+			PipedInputStream input = new PipedInputStream(BUNDLE_PIPE_SIZE);
+			PipedOutputStream output;
+
+			try {
+				output = new PipedOutputStream(input);
+			} catch (IOException e) {
+				return Flux.error(e);
+			}
+
+			Flux<DataBuffer> reader = DataBufferUtils
+					.readInputStream(() -> input, pooledBufferFactory, BUNDLE_BUFFER_SIZE)
+					.subscribeOn(Schedulers.boundedElastic());
+
+			Mono<DataBuffer> writer = Mono.<DataBuffer> fromCallable(() -> {
+
+				writeBundle(entries, output);
+				return null;
+			}).subscribeOn(Schedulers.boundedElastic());
+
+			return Flux.merge(reader, writer);
+		});
+	}
+
+	/**
+	 * Extract the repository identifier from a repository URI such as
+	 * {@code https://oss.sonatype.org/content/repositories/orgexample-1001}.
+	 *
+	 * @param repositoryUri
+	 * @return
+	 */
+	static String getRepositoryId(String repositoryUri) {
+
+		String uri = repositoryUri.endsWith("/") ? repositoryUri.substring(0, repositoryUri.length() - 1)
+				: repositoryUri;
+
+		return uri.substring(uri.lastIndexOf('/') + 1);
 	}
 
-	private static Map<String, File> getFilesToUpload(File moduleDirectory, Artifact artifact) {
+	private static void writeBundle(Map<String, UploadPayload> entries, OutputStream output) throws IOException {
 
-		Map<String, File> filesToUpload = new LinkedHashMap<>();
+		try (ZipOutputStream zip = new ZipOutputStream(output)) {
+
+			zip.setLevel(Deflater.NO_COMPRESSION);
+
+			for (Map.Entry<String, UploadPayload> entry : entries.entrySet()) {
+
+				zip.putNextEntry(new ZipEntry(entry.getKey()));
+				entry.getValue().writeTo(zip);
+				zip.closeEntry();
+			}
+		}
+	}
+
+	private static boolean isChecksumFile(String filename) {
+		return filename.endsWith(".md5") || filename.endsWith(".sha1");
+	}
+
+	private static List<UploadPayload> getPayloads(File moduleDirectory, Artifact artifact) {
+
+		List<UploadPayload> payloads = new ArrayList<>();
 
 		for (String filename : artifact.getDistributionFileNames()) {
 
+			if (filename.equals(artifact.getName() + ".md5") && artifact.getMd5() != null) {
+				payloads.add(UploadPayload.of(filename, artifact.getMd5()));
+				continue;
+			}
+
+			if (filename.equals(artifact.getName() + ".sha1") && artifact.getSha1() != null) {
+				payloads.add(UploadPayload.of(filename, artifact.getSha1()));
+				continue;
+			}
+
 			File file = new File(moduleDirectory, filename);
 
 			if (!file.exists()) {
 				throw new IllegalStateException(String.format("File %s does not exist", filename));
 			}
 
-			filesToUpload.put(filename, file);
+			String sha1 = filename.equals(artifact.getName()) ? artifact.getSha1() : null;
+			payloads.add(UploadPayload.of(filename, file, sha1));
 		}
 
-		return filesToUpload;
+		return payloads;
 	}
 
 }
@@ -13,24 +13,24 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package io.spring.artifactpromoter.artifactpromoter.artifactory;
+package io.spring.artifactpromoter.artifactpromoter.nexus;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.Getter;
+import lombok.Data;
 
 /**
+ * Repository target selecting repository paths by regular expressions, for example {@code ^/com/example/.*}.
+ *
  * @author Mark Paluch
  */
-@Getter
+@Data
 @JsonIgnoreProperties(ignoreUnknown = true)
-class BuildArtifactsResponse {
-
-	private final List<DownloadUri> results;
+class RepositoryTargetResponse {
 
-	public BuildArtifactsResponse(@JsonProperty("downloadUris") List<DownloadUri> results) {
-		this.results = results;
-	}
+	String id;
+	String name;
+	List<String> patterns = new ArrayList<>();
 }
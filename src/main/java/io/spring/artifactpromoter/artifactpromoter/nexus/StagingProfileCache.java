@@ -0,0 +1,80 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.nexus;
+
+import lombok.Value;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Cache of selected {@link StagingProfile staging profiles} by module coordinates. Entries expire after a time to live
+ * so that changes to the staging profiles in Nexus become visible to a long-running application.
+ *
+ * @author Mark Paluch
+ */
+class StagingProfileCache {
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+	private final Duration timeToLive;
+	private final Clock clock;
+
+	StagingProfileCache(Duration timeToLive) {
+		this(timeToLive, Clock.systemUTC());
+	}
+
+	StagingProfileCache(Duration timeToLive, Clock clock) {
+		this.timeToLive = timeToLive;
+		this.clock = clock;
+	}
+
+	/**
+	 * @param coordinates module coordinates in the form of {@code groupId:artifactId:version}.
+	 * @return the cached staging profile or {@code null} if not cached or expired.
+	 */
+	@Nullable
+	StagingProfile get(String coordinates) {
+
+		Entry entry = entries.get(coordinates);
+
+		if (entry == null) {
+			return null;
+		}
+
+		if (!clock.instant().isBefore(entry.getExpiresAt())) {
+			entries.remove(coordinates, entry);
+			return null;
+		}
+
+		return entry.getProfile();
+	}
+
+	void put(String coordinates, StagingProfile profile) {
+		entries.put(coordinates, new Entry(profile, clock.instant().plus(timeToLive)));
+	}
+
+	@Value
+	static class Entry {
+
+		StagingProfile profile;
+		Instant expiresAt;
+	}
+}
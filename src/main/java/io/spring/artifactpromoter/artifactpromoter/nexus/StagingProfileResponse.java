@@ -27,4 +27,5 @@ class StagingProfileResponse {
 
 	String id;
 	String name;
+	String repositoryTargetId;
 }
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.nexus;
+
+import io.spring.artifactpromoter.artifactpromoter.GAVC;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.lang.Nullable;
+
+/**
+ * Table of staging profiles with the path patterns of their repository targets to select a {@link StagingProfile}
+ * locally instead of asking Nexus to evaluate profiles for each module. Repository target patterns match artifact
+ * paths, so a module is matched by the paths of representative artifacts, its POM and its JAR. Profiles are matched in
+ * the order reported by Nexus, the first profile whose repository target matches an artifact path wins. A module is
+ * matched only if all representative artifacts select the same profile; otherwise the profile cannot be decided
+ * locally.
+ *
+ * @author Mark Paluch
+ */
+class StagingProfileTable {
+
+	private static final StagingProfileTable EMPTY = new StagingProfileTable(Collections.emptyList());
+
+	private static final List<String> REPRESENTATIVE_EXTENSIONS = List.of("pom", "jar");
+
+	private final List<Entry> entries;
+
+	private StagingProfileTable(List<Entry> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * @return an empty table that does not match any module.
+	 */
+	static StagingProfileTable empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Create a table from staging profiles and the repository targets they refer to. Profiles without a known
+	 * repository target are skipped.
+	 *
+	 * @param profiles
+	 * @param targets
+	 * @return
+	 */
+	static StagingProfileTable of(StagingProfiles profiles, RepositoryTargets targets) {
+
+		Map<String, RepositoryTargetResponse> targetsById = targets.getData().stream()
+				.collect(Collectors.toMap(RepositoryTargetResponse::getId, Function.identity(), (a, b) -> a));
+		List<Entry> entries = new ArrayList<>();
+
+		for (StagingProfileResponse profile : profiles.getData()) {
+
+			RepositoryTargetResponse target = targetsById.get(profile.getRepositoryTargetId());
+
+			if (target == null) {
+				continue;
+			}
+
+			List<Pattern> patterns = target.getPatterns().stream().map(Pattern::compile).collect(Collectors.toList());
+			entries.add(new Entry(StagingProfile.of(profile.getId()), patterns));
+		}
+
+		return new StagingProfileTable(entries);
+	}
+
+	/**
+	 * Select the {@link StagingProfile} for the module identified by {@link GAVC}.
+	 *
+	 * @param gavc
+	 * @return the staging profile or {@code null} if no profile matches or representative artifacts of the module
+	 *         match different profiles.
+	 */
+	@Nullable
+	StagingProfile match(GAVC gavc) {
+
+		String basePath = "/" + gavc.toString(true, "/") + "/" + gavc.getArtifactId() + "-" + gavc.getVersion() + ".";
+		StagingProfile profile = null;
+
+		for (String extension : REPRESENTATIVE_EXTENSIONS) {
+
+			StagingProfile candidate = match(basePath + extension);
+
+			if (candidate == null || (profile != null && !profile.equals(candidate))) {
+				return null;
+			}
+
+			profile = candidate;
+		}
+
+		return profile;
+	}
+
+	@Nullable
+	private StagingProfile match(String path) {
+
+		for (Entry entry : entries) {
+			for (Pattern pattern : entry.getPatterns()) {
+				if (pattern.matcher(path).matches()) {
+					return entry.getProfile();
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * @return the number of profiles in this table.
+	 */
+	int size() {
+		return entries.size();
+	}
+
+	@Value
+	static class Entry {
+
+		StagingProfile profile;
+		List<Pattern> patterns;
+	}
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.nexus;
+
+import io.spring.artifactpromoter.artifactpromoter.ChecksumAlgorithm;
+import io.spring.artifactpromoter.artifactpromoter.MultiDigest;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.BodyInserters;
+
+/**
+ * Content of a single file to upload into a staging repository. Small payloads such as checksums and signatures are
+ * sent from memory as a single pooled {@link DataBuffer}. Larger files are sent as zero-copy file region if the
+ * transport allows it, otherwise they are streamed from disk through pooled buffers sized by the file size.
+ *
+ * @author Mark Paluch
+ */
+class UploadPayload {
+
+	/**
+	 * Files up to this size are read with a single call instead of being streamed.
+	 */
+	static final int IN_MEMORY_THRESHOLD = 64 * 1024;
+
+	static final int MIN_BUFFER_SIZE = 16 * 1024;
+
+	static final int MAX_BUFFER_SIZE = 1024 * 1024;
+
+	private final String filename;
+	private final @Nullable File file;
+	private final @Nullable byte[] content;
+	private final @Nullable String sha1;
+
+	private UploadPayload(String filename, @Nullable File file, @Nullable byte[] content, @Nullable String sha1) {
+		this.filename = filename;
+		this.file = file;
+		this.content = content;
+		this.sha1 = sha1;
+	}
+
+	/**
+	 * Create a payload for a file on disk.
+	 *
+	 * @param filename the remote file name.
+	 * @param file the file to upload.
+	 * @param sha1 the SHA-1 checksum of the file if known upfront.
+	 * @return
+	 */
+	static UploadPayload of(String filename, File file, @Nullable String sha1) {
+		return new UploadPayload(filename, file, null, sha1);
+	}
+
+	/**
+	 * Create a payload for text content held in memory, such as a checksum.
+	 *
+	 * @param filename the remote file name.
+	 * @param content the content to upload.
+	 * @return
+	 */
+	static UploadPayload of(String filename, String content) {
+		return new UploadPayload(filename, null, content.getBytes(StandardCharsets.US_ASCII), null);
+	}
+
+	String getFilename() {
+		return filename;
+	}
+
+	long getLength() {
+		return content != null ? content.length : file.length();
+	}
+
+	/**
+	 * @param mappingThreshold file size in bytes at or above which the file is memory-mapped for hashing.
+	 * @return the SHA-1 checksum of the payload. Computed lazily if not known upfront.
+	 */
+	Mono<String> getSha1(long mappingThreshold) {
+
+		if (sha1 != null) {
+			return Mono.just(sha1);
+		}
+
+		if (content != null) {
+			return Mono.fromSupplier(() -> {
+
+				MultiDigest digest = MultiDigest.of(ChecksumAlgorithm.SHA1);
+				digest.update(content, 0, content.length);
+				return digest.digest().getSha1();
+			});
+		}
+
+		return Mono.fromCallable(
+				() -> MultiDigest.compute(file.toPath(), mappingThreshold, ChecksumAlgorithm.SHA1).getSha1())
+				.subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * Create the request body. In-memory content and small files are emitted as a single buffer allocated from
+	 * {@code pooledBufferFactory} per subscription so that the body can be subscribed to again when retrying. Larger
+	 * files are written as {@link FileSystemResource} that Reactor Netty transfers as zero-copy file region if
+	 * {@code zeroCopy} is enabled. Otherwise, e.g. when encrypting with TLS, files are read into pooled buffers.
+	 *
+	 * @param pooledBufferFactory factory for pooled buffers.
+	 * @param zeroCopy whether large files may be transferred as zero-copy file region.
+	 * @return
+	 */
+	BodyInserter<?, ReactiveHttpOutputMessage> getBody(DataBufferFactory pooledBufferFactory, boolean zeroCopy) {
+
+		if (content != null) {
+			return BodyInserters.fromDataBuffers(
+					Mono.fromSupplier(() -> pooledBufferFactory.allocateBuffer(content.length).write(content))
+							.doOnDiscard(DataBuffer.class, DataBufferUtils::release));
+		}
+
+		if (file.length() <= IN_MEMORY_THRESHOLD) {
+			return BodyInserters.fromDataBuffers(Mono.fromCallable(() -> {
+
+				byte[] bytes = Files.readAllBytes(file.toPath());
+				return pooledBufferFactory.allocateBuffer(bytes.length).write(bytes);
+			}).subscribeOn(Schedulers.boundedElastic()).doOnDiscard(DataBuffer.class, DataBufferUtils::release));
+		}
+
+		if (zeroCopy) {
+			return BodyInserters.fromResource(new FileSystemResource(file));
+		}
+
+		int bufferSize = getBufferSize(file.length());
+
+		return BodyInserters.fromDataBuffers(DataBufferUtils.read(file.toPath(), pooledBufferFactory, bufferSize));
+	}
+
+	/**
+	 * Determine the read buffer size for a file of {@code length} bytes: The file size rounded up to the next power of
+	 * two, bounded by {@link #MIN_BUFFER_SIZE} and {@link #MAX_BUFFER_SIZE}.
+	 *
+	 * @param length the file size.
+	 * @return the buffer size.
+	 */
+	static int getBufferSize(long length) {
+
+		if (length >= MAX_BUFFER_SIZE) {
+			return MAX_BUFFER_SIZE;
+		}
+
+		return Math.max(MIN_BUFFER_SIZE, Integer.highestOneBit((int) Math.max(1, length - 1)) << 1);
+	}
+
+	/**
+	 * Write the payload to {@link OutputStream}, e.g. when adding it to an archive.
+	 *
+	 * @param output the stream to write to.
+	 * @throws IOException
+	 */
+	void writeTo(OutputStream output) throws IOException {
+
+		if (content != null) {
+			output.write(content);
+		} else {
+			Files.copy(file.toPath(), output);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return filename;
+	}
+}
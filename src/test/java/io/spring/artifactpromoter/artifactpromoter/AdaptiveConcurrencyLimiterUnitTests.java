@@ -0,0 +1,182 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Unit tests for {@link AdaptiveConcurrencyLimiter}.
+ *
+ * @author Mark Paluch
+ */
+class AdaptiveConcurrencyLimiterUnitTests {
+
+	@Test
+	void shouldLimitConcurrencyAndIncreaseLimitOnSuccess() {
+
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 4);
+		AtomicInteger active = new AtomicInteger();
+		AtomicInteger maxActive = new AtomicInteger();
+
+		Mono<Void> operation = Mono.defer(() -> {
+
+			maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+			return Mono.delay(Duration.ofMillis(10)).doOnTerminate(active::decrementAndGet).then();
+		});
+
+		StepVerifier.create(Flux.range(0, 32).flatMap(i -> limiter.run(operation))).verifyComplete();
+
+		assertThat(maxActive).hasValueLessThanOrEqualTo(4);
+		assertThat(limiter.getLimit()).isEqualTo(4);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	void shouldDecreaseLimitOnDroppedRequests() {
+
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 2, 10);
+
+		for (int i = 0; i < 3; i++) {
+			StepVerifier.create(limiter.run(Mono.error(WebClientResponseException
+					.create(HttpStatus.SERVICE_UNAVAILABLE.value(), "Service Unavailable", null, null, null))))
+					.verifyError();
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(7);
+		assertThat(limiter.getDrops()).isEqualTo(3);
+
+		StepVerifier.create(limiter.run(Mono.error(
+				WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null))))
+				.verifyError();
+
+		assertThat(limiter.getLimit()).isEqualTo(7);
+		assertThat(limiter.getDrops()).isEqualTo(3);
+
+		for (int i = 0; i < 10; i++) {
+			StepVerifier.create(limiter.run(Mono.error(new IllegalStateException()).onErrorMap(
+					e -> new IOException("Connection reset")))).verifyError();
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(2);
+		assertThat(limiter.getInFlight()).isZero();
+	}
+
+	@Test
+	void shouldDecreaseLimitWhenResponseTimeRises() {
+
+		AtomicLong clock = new AtomicLong();
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 4, clock::get);
+
+		for (int i = 0; i < 10; i++) {
+			StepVerifier.create(limiter.run(respond(clock, 10, 0))).verifyComplete();
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(4);
+		assertThat(limiter.getMinRtt()).isBetween(10d, 12d);
+
+		StepVerifier.create(limiter.run(respond(clock, 100, 0))).verifyComplete();
+
+		assertThat(limiter.getLimit()).isEqualTo(4);
+
+		for (int i = 0; i < 3; i++) {
+			StepVerifier.create(limiter.run(respond(clock, 50, 0))).verifyComplete();
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(3);
+		assertThat(limiter.getDrops()).isZero();
+
+		for (int i = 0; i < 13; i++) {
+			StepVerifier.create(limiter.run(respond(clock, 50, 0))).verifyComplete();
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(1);
+		assertThat(limiter.getSmoothedRtt()).isGreaterThan(limiter.getMinRtt() * 2);
+	}
+
+	@Test
+	void shouldNotDecreaseLimitForLargeTransfers() {
+
+		AtomicLong clock = new AtomicLong();
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 4, 1, 4, clock::get);
+
+		for (int i = 0; i < 40; i++) {
+
+			// checksum uploads and HEAD checks respond quickly
+			StepVerifier.create(limiter.run(respond(clock, 10, 0))).verifyComplete();
+
+			// downloads respond as quickly but transfer their body afterwards
+			StepVerifier.create(limiter.run(respond(clock, 12, 1000))).verifyComplete();
+
+			// large uploads do not mark a response
+			StepVerifier.create(limiter.run(advance(clock, 2000))).verifyComplete();
+		}
+
+		assertThat(limiter.getLimit()).isEqualTo(4);
+		assertThat(limiter.getMinRtt()).isBetween(10d, 12d);
+		assertThat(limiter.getSmoothedRtt()).isLessThan(limiter.getMinRtt() * 2);
+	}
+
+	@Test
+	void shouldReleasePermitsOnCancel() {
+
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 1, 1, 1);
+
+		Disposable running = limiter.run(Mono.never()).subscribe();
+		Disposable waiting = limiter.run(Mono.just("waiting")).subscribe();
+
+		assertThat(limiter.getInFlight()).isOne();
+		assertThat(limiter.getPending()).isOne();
+
+		waiting.dispose();
+		assertThat(limiter.getPending()).isZero();
+
+		running.dispose();
+		assertThat(limiter.getInFlight()).isZero();
+
+		StepVerifier.create(limiter.run(Mono.just("ok"))).expectNext("ok").verifyComplete();
+	}
+
+	private static Function<Runnable, Mono<Void>> respond(AtomicLong clock, long responseMillis, long transferMillis) {
+
+		return responded -> Mono.fromRunnable(() -> {
+
+			clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(responseMillis));
+			responded.run();
+			clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(transferMillis));
+		});
+	}
+
+	private static Mono<Void> advance(AtomicLong clock, long millis) {
+		return Mono.fromRunnable(() -> clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis)));
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Unit tests for {@link ArtifactCache}.
+ *
+ * @author Mark Paluch
+ */
+class ArtifactCacheUnitTests {
+
+	@Test
+	void shouldLinkStoredFiles(@TempDir File directory) throws Exception {
+
+		ArtifactCache cache = new ArtifactCache(createProperties(directory, DataSize.ofKilobytes(1)));
+		File source = createFile(directory, "source.jar", "hello-world");
+		File target = new File(directory, "target.jar");
+
+		assertThat(cache.link(DigestUtils.sha1Hex("hello-world"), target)).isFalse();
+
+		cache.store(DigestUtils.sha1Hex("hello-world"), source);
+
+		assertThat(cache.link(DigestUtils.sha1Hex("hello-world"), target)).isTrue();
+		assertThat(target).hasContent("hello-world");
+		assertThat(cache.getHits()).isOne();
+		assertThat(cache.getMisses()).isOne();
+		assertThat(cache.getSize()).isEqualTo(11);
+	}
+
+	@Test
+	void shouldEvictLeastRecentlyUsedFiles(@TempDir File directory) throws Exception {
+
+		ArtifactCache cache = new ArtifactCache(createProperties(directory, DataSize.ofBytes(25)));
+		String first = DigestUtils.sha1Hex("first-file");
+		String second = DigestUtils.sha1Hex("second-file");
+		String third = DigestUtils.sha1Hex("third-file");
+
+		cache.store(first, createFile(directory, "first", "first-file"));
+		cache.store(second, createFile(directory, "second", "second-file"));
+		assertThat(cache.link(first, new File(directory, "first-link"))).isTrue();
+		cache.store(third, createFile(directory, "third", "third-file"));
+
+		assertThat(cache.getEvictions()).isOne();
+		assertThat(cache.link(second, new File(directory, "second-link"))).isFalse();
+		assertThat(cache.link(first, new File(directory, "first-link"))).isTrue();
+		assertThat(cache.link(third, new File(directory, "third-link"))).isTrue();
+		assertThat(cache.getSize()).isEqualTo(20);
+	}
+
+	@Test
+	void shouldNotModifyLinkedFiles(@TempDir File directory) throws Exception {
+
+		ArtifactCache cache = new ArtifactCache(createProperties(directory, DataSize.ofKilobytes(1)));
+		File source = createFile(directory, "source.jar", "hello-world");
+		source.setLastModified(1_000_000);
+
+		cache.store(DigestUtils.sha1Hex("hello-world"), source);
+
+		assertThat(cache.link(DigestUtils.sha1Hex("hello-world"), new File(directory, "target.jar"))).isTrue();
+		assertThat(source.lastModified()).isEqualTo(1_000_000);
+	}
+
+	@Test
+	void shouldInvalidateCorruptFiles(@TempDir File directory) throws Exception {
+
+		ArtifactCache cache = new ArtifactCache(createProperties(directory, DataSize.ofKilobytes(1)));
+		String sha1 = DigestUtils.sha1Hex("hello-world");
+		File source = createFile(directory, "source.jar", "hello-world");
+
+		cache.store(sha1, source);
+		cache.invalidate(sha1);
+
+		assertThat(cache.getSize()).isZero();
+		assertThat(cache.getEvictions()).isOne();
+		assertThat(cache.link(sha1, new File(directory, "target.jar"))).isFalse();
+		assertThat(source).hasContent("hello-world");
+
+		cache.store(sha1, source);
+
+		assertThat(cache.link(sha1, new File(directory, "target.jar"))).isTrue();
+	}
+
+	@Test
+	void shouldRestoreIndexFromDirectory(@TempDir File directory) throws Exception {
+
+		ArtifactPromoterProperties properties = createProperties(directory, DataSize.ofKilobytes(1));
+		new ArtifactCache(properties).store(DigestUtils.sha1Hex("hello-world"),
+				createFile(directory, "source.jar", "hello-world"));
+
+		ArtifactCache cache = new ArtifactCache(properties);
+
+		assertThat(cache.getSize()).isEqualTo(11);
+		assertThat(cache.link(DigestUtils.sha1Hex("hello-world"), new File(directory, "target.jar"))).isTrue();
+	}
+
+	private static File createFile(File directory, String name, String content) throws Exception {
+
+		File file = new File(directory, name);
+		FileUtils.writeStringToFile(file, content, StandardCharsets.US_ASCII);
+		return file;
+	}
+
+	private static ArtifactPromoterProperties createProperties(File directory, DataSize maxSize) {
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.getCache().setDirectory(new File(directory, "cache"));
+		properties.getCache().setMaxSize(maxSize);
+
+		return properties;
+	}
+}
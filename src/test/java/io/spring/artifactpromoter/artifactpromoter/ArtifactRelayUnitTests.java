@@ -0,0 +1,160 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.spring.artifactpromoter.artifactpromoter.artifactory.ArtifactoryClient;
+import io.spring.artifactpromoter.artifactpromoter.artifactory.ChecksumVerificationException;
+import io.spring.artifactpromoter.artifactpromoter.nexus.NexusClient;
+import io.spring.artifactpromoter.artifactpromoter.nexus.StagingRepository;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Unit tests for {@link ArtifactRelay}.
+ *
+ * @author Mark Paluch
+ */
+class ArtifactRelayUnitTests {
+
+	static final String DEPLOY_PATH = "/service/local/staging/deployByRepositoryId/repo-1/com/example/module/1.0/";
+
+	@Test
+	void shouldRelayArtifactWithChecksumsAndSignature(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = new byte[512 * 1024];
+		new Random(42).nextBytes(content);
+		Map<String, byte[]> uploads = new ConcurrentHashMap<>();
+
+		DisposableServer server = createServer(content, uploads);
+
+		try {
+
+			Modules modules = createModules(server, DigestUtils.sha1Hex(content), DigestUtils.md5Hex(content));
+
+			StepVerifier.create(relay(workingDirectory, server, modules)).verifyComplete();
+
+			assertThat(uploads).containsOnlyKeys("module-1.0.jar", "module-1.0.jar.md5", "module-1.0.jar.sha1",
+					"module-1.0.jar.asc");
+			assertThat(uploads.get("module-1.0.jar")).isEqualTo(content);
+			assertThat(new String(uploads.get("module-1.0.jar.md5"))).isEqualTo(DigestUtils.md5Hex(content));
+			assertThat(new String(uploads.get("module-1.0.jar.sha1"))).isEqualTo(DigestUtils.sha1Hex(content));
+
+			try (InputStream message = new ByteArrayInputStream(content);
+					InputStream signature = new ByteArrayInputStream(uploads.get("module-1.0.jar.asc"));
+					InputStream keyring = new ClassPathResource("public-key-D6C063D5.asc").getInputStream()) {
+				PgpClient.verifySignature(message, signature, keyring);
+			}
+
+			assertThat(workingDirectory.list()).isEmpty();
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldNotUploadChecksumsOfCorruptedArtifact(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = "hello-world".getBytes();
+		Map<String, byte[]> uploads = new ConcurrentHashMap<>();
+
+		DisposableServer server = createServer(content, uploads);
+
+		try {
+
+			Modules modules = createModules(server, DigestUtils.sha1Hex("other"), DigestUtils.md5Hex(content));
+
+			StepVerifier.create(relay(workingDirectory, server, modules))
+					.verifyError(ChecksumVerificationException.class);
+
+			assertThat(uploads).containsOnlyKeys("module-1.0.jar");
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	private static Mono<Void> relay(File workingDirectory, DisposableServer server, Modules modules) throws Exception {
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.setWorkingDirectory(workingDirectory);
+		properties.getArtifactory().setUsername("user");
+		properties.getArtifactory().setPassword("password");
+		properties.getNexus().setAddress("http://localhost:" + server.port());
+		properties.getNexus().setUsername("user");
+		properties.getNexus().setPassword("password");
+		properties.getPgp().setKeyring(new ClassPathResource("private-key-D6C063D5.asc").getFile());
+		properties.getPgp().setKey("D6C063D5");
+		properties.getPgp().setPassphrase("something@example.com");
+		properties.getRelay().setEnabled(true);
+
+		ArtifactSigner signer = new ArtifactSigner(properties, new PgpSigner(properties));
+		ArtifactoryClient artifactory = new ArtifactoryClient(properties, signer, new ArtifactCache(properties));
+		NexusClient nexus = new NexusClient(properties);
+		ArtifactRelay relay = new ArtifactRelay(properties, artifactory, nexus);
+
+		return relay.relay(StagingRepository.of("repo-1"), modules).doFinally(it -> {
+			artifactory.destroy();
+			nexus.destroy();
+			signer.destroy();
+		});
+	}
+
+	private static Modules createModules(DisposableServer server, String sha1, String md5) {
+
+		String uri = "http://localhost:" + server.port() + "/module-1.0.jar";
+		Artifact artifact = new Artifact("module-1.0.jar", sha1, md5, uri, ArtifactType.JAR, null);
+
+		return Modules.of(List.of(Module.of(GAVC.of("com.example:module:1.0"), List.of(artifact))));
+	}
+
+	private static DisposableServer createServer(byte[] content, Map<String, byte[]> uploads) {
+
+		return HttpServer.create().port(0).handle((request, response) -> {
+
+			if (request.uri().equals("/module-1.0.jar")) {
+				return response.sendByteArray(Mono.just(content));
+			}
+
+			if (request.uri().startsWith(DEPLOY_PATH)) {
+
+				return request.receive().aggregate().asByteArray().defaultIfEmpty(new byte[0]).flatMap(body -> {
+
+					uploads.put(request.uri().substring(DEPLOY_PATH.length()), body);
+					return response.status(201).send().then();
+				});
+			}
+
+			return response.status(404).send();
+		}).bindNow();
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.spring.artifactpromoter.artifactpromoter.artifactory.ArtifactoryBuild;
+import reactor.test.StepVerifier;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Unit tests for {@link ArtifactSigner}.
+ *
+ * @author Mark Paluch
+ */
+class ArtifactSignerUnitTests {
+
+	@Test
+	void shouldSignArtifacts(@TempDir File workingDirectory) throws Exception {
+
+		ArtifactoryBuild build = ArtifactoryBuild.of("my-build", 1);
+		File buildDirectory = WorkspaceUtils.getContextDirectory(workingDirectory, build);
+		List<Module> modules = new ArrayList<>();
+
+		for (String artifactId : new String[] { "core", "http" }) {
+
+			Module module = Module.of(GAVC.of("io.projectreactor.netty:reactor-netty-" + artifactId + ":1.0.4"),
+					List.of(artifact("reactor-netty-" + artifactId + "-1.0.4.jar", ArtifactType.JAR),
+							artifact("reactor-netty-" + artifactId + "-1.0.4.pom", ArtifactType.POM)));
+			File moduleDirectory = WorkspaceUtils.getModuleDirectory(buildDirectory, module);
+
+			for (Artifact artifact : module.getArtifacts()) {
+				FileUtils.writeStringToFile(new File(moduleDirectory, artifact.getName()), artifact.getName(),
+						StandardCharsets.UTF_8);
+			}
+
+			modules.add(module);
+		}
+
+		ArtifactSigner signer = createSigner(workingDirectory);
+
+		try {
+			StepVerifier.create(signer.sign(Modules.of(modules), build)).verifyComplete();
+		} finally {
+			signer.destroy();
+		}
+
+		for (Module module : modules) {
+
+			File moduleDirectory = WorkspaceUtils.getModuleDirectory(buildDirectory, module);
+
+			for (Artifact artifact : module.getArtifacts()) {
+
+				File signature = new File(moduleDirectory, artifact.getName() + ".asc");
+				assertThat(signature).exists();
+
+				try (InputStream message = new FileInputStream(new File(moduleDirectory, artifact.getName()));
+						InputStream asc = new FileInputStream(signature);
+						InputStream keyring = new ClassPathResource("public-key-D6C063D5.asc").getInputStream()) {
+					PgpClient.verifySignature(message, asc, keyring);
+				}
+			}
+		}
+
+		assertThat(signer.getMetrics().getSignatures()).isEqualTo(4);
+		assertThat(signer.getMetrics().getBytesHashed()).isEqualTo(
+				"reactor-netty-core-1.0.4.jar".length() * 2 + "reactor-netty-http-1.0.4.jar".length() * 2);
+		assertThat(signer.getMetrics().getSignaturesPerSecond()).isPositive();
+	}
+
+	@Test
+	void shouldKeepCurrentSignaturesWhenResuming(@TempDir File workingDirectory) throws Exception {
+
+		ArtifactoryBuild build = ArtifactoryBuild.of("my-build", 1);
+		File buildDirectory = WorkspaceUtils.getContextDirectory(workingDirectory, build);
+		Module module = Module.of(GAVC.of("io.projectreactor.netty:reactor-netty-core:1.0.4"),
+				List.of(artifact("reactor-netty-core-1.0.4.jar", ArtifactType.JAR),
+						artifact("reactor-netty-core-1.0.4.pom", ArtifactType.POM)));
+		File moduleDirectory = WorkspaceUtils.getModuleDirectory(buildDirectory, module);
+
+		for (Artifact artifact : module.getArtifacts()) {
+			FileUtils.writeStringToFile(new File(moduleDirectory, artifact.getName()), artifact.getName(),
+					StandardCharsets.UTF_8);
+			FileUtils.writeStringToFile(new File(moduleDirectory, artifact.getName() + ".asc"), "previous",
+					StandardCharsets.US_ASCII);
+		}
+
+		// only the jar is current, the pom was downloaded but not verified
+		WorkspaceManifest.create(buildDirectory).record(new File(moduleDirectory, "reactor-netty-core-1.0.4.jar"),
+				"sha1");
+
+		ArtifactSigner signer = createSigner(workingDirectory, true);
+
+		try {
+			StepVerifier.create(signer.sign(Modules.of(List.of(module)), build)).verifyComplete();
+		} finally {
+			signer.destroy();
+		}
+
+		assertThat(new File(moduleDirectory, "reactor-netty-core-1.0.4.jar.asc")).hasContent("previous");
+		assertThat(FileUtils.readFileToString(new File(moduleDirectory, "reactor-netty-core-1.0.4.pom.asc"),
+				StandardCharsets.US_ASCII)).startsWith("-----BEGIN PGP SIGNATURE-----");
+		assertThat(signer.getMetrics().getSignatures()).isOne();
+	}
+
+	@Test
+	void signingShouldFailForMissingArtifact(@TempDir File workingDirectory) throws Exception {
+
+		Module module = Module.of(GAVC.of("io.projectreactor.netty:reactor-netty-core:1.0.4"),
+				List.of(artifact("reactor-netty-core-1.0.4.jar", ArtifactType.JAR)));
+
+		ArtifactSigner signer = createSigner(workingDirectory);
+
+		try {
+			StepVerifier.create(signer.sign(Modules.of(List.of(module)), ArtifactoryBuild.of("my-build", 1))).verifyError();
+		} finally {
+			signer.destroy();
+		}
+
+		assertThat(signer.getMetrics().getSignatures()).isZero();
+	}
+
+	static Artifact artifact(String name, ArtifactType type) {
+		return new Artifact(name, "sha1", "md5", "https://localhost/" + name, type, null);
+	}
+
+	private static ArtifactSigner createSigner(File workingDirectory) throws Exception {
+		return createSigner(workingDirectory, false);
+	}
+
+	private static ArtifactSigner createSigner(File workingDirectory, boolean resume) throws Exception {
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.setWorkingDirectory(workingDirectory);
+		properties.getArtifactory().setResume(resume);
+		properties.getPgp().setKeyring(new ClassPathResource("private-key-D6C063D5.asc").getFile());
+		properties.getPgp().setKey("D6C063D5");
+		properties.getPgp().setPassphrase("something@example.com");
+
+		return new ArtifactSigner(properties, new PgpSigner(properties));
+	}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ByteBudget}.
+ *
+ * @author Mark Paluch
+ */
+class ByteBudgetUnitTests {
+
+	@Test
+	void shouldWaitUntilBytesAreReturned() {
+
+		ByteBudget budget = new ByteBudget(100);
+		Sinks.Empty<Void> first = Sinks.empty();
+		List<String> started = new CopyOnWriteArrayList<>();
+
+		budget.run(60, Mono.fromRunnable(() -> started.add("first")).then(first.asMono())).subscribe();
+		budget.run(60, Mono.fromRunnable(() -> started.add("second"))).subscribe();
+
+		assertThat(started).containsExactly("first");
+		assertThat(budget.getAvailable()).isEqualTo(40);
+		assertThat(budget.getPending()).isOne();
+
+		first.tryEmitEmpty();
+
+		assertThat(started).containsExactly("first", "second");
+		assertThat(budget.getAvailable()).isEqualTo(100);
+	}
+
+	@Test
+	void shouldGrantPendingReservationsInOrder() {
+
+		ByteBudget budget = new ByteBudget(100);
+		Sinks.Empty<Void> first = Sinks.empty();
+		List<String> started = new CopyOnWriteArrayList<>();
+
+		budget.run(100, first.asMono()).subscribe();
+		budget.run(80, Mono.fromRunnable(() -> started.add("large"))).subscribe();
+		budget.run(10, Mono.fromRunnable(() -> started.add("small"))).subscribe();
+
+		assertThat(started).isEmpty();
+
+		first.tryEmitEmpty();
+
+		assertThat(started).containsExactly("large", "small");
+	}
+
+	@Test
+	void shouldReturnBytesOnCancellation() {
+
+		ByteBudget budget = new ByteBudget(100);
+		List<String> started = new CopyOnWriteArrayList<>();
+
+		Disposable running = budget.run(500, Mono.never()).subscribe();
+		Disposable waiting = budget.run(50, Mono.never()).subscribe();
+		budget.run(50, Mono.fromRunnable(() -> started.add("next"))).subscribe();
+
+		assertThat(budget.getAvailable()).isZero();
+
+		waiting.dispose();
+		running.dispose();
+
+		assertThat(started).containsExactly("next");
+		assertThat(budget.getAvailable()).isEqualTo(100);
+		assertThat(budget.getPending()).isZero();
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks comparing the two-pass {@link DigestUtils} checksum computation against single-pass {@link MultiDigest}.
+ * Run with {@code org.openjdk.jmh.Main ChecksumBenchmarks} from the test classpath.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksumBenchmarks {
+
+	@Param({ "16384", "4194304", "268435456" })
+	int fileSize;
+
+	Path file;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+
+		byte[] content = new byte[Math.min(fileSize, 1024 * 1024)];
+		new Random(42).nextBytes(content);
+
+		file = Files.createTempFile("checksum-benchmark", ".jar");
+
+		for (int written = 0; written < fileSize; written += content.length) {
+			Files.write(file, content, StandardOpenOption.APPEND);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public void twoPassDigestUtils(Blackhole blackhole) throws IOException {
+
+		try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file.toFile()))) {
+			blackhole.consume(DigestUtils.sha1Hex(inputStream));
+		}
+
+		try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file.toFile()))) {
+			blackhole.consume(DigestUtils.md5Hex(inputStream));
+		}
+	}
+
+	@Benchmark
+	public void singlePassMd5Sha1(Blackhole blackhole) throws IOException {
+		blackhole.consume(MultiDigest.compute(file, ChecksumAlgorithm.MD5, ChecksumAlgorithm.SHA1));
+	}
+
+	@Benchmark
+	public void singlePassAllAlgorithms(Blackhole blackhole) throws IOException {
+		blackhole.consume(MultiDigest.compute(file, ChecksumAlgorithm.values()));
+	}
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.bouncycastle.openpgp.PGPException;
+import org.bouncycastle.openpgp.PGPSignatureGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Benchmarks comparing hashing of files read through a pooled buffer against memory-mapped files to determine the
+ * crossover for {@link ArtifactPromoterProperties#getMappingThreshold()}. Signing reads through a buffer and serves as
+ * a baseline. Run with
+ * {@code org.openjdk.jmh.Main FileContentsBenchmarks} from the test classpath.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileContentsBenchmarks {
+
+	static final long BUFFERED = Long.MAX_VALUE;
+	static final long MAPPED = 0;
+
+	@Param({ "65536", "1048576", "4194304", "16777216", "67108864", "268435456" })
+	int fileSize;
+
+	Path file;
+
+	PgpSigner signer;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+
+		byte[] content = new byte[Math.min(fileSize, 1024 * 1024)];
+		new Random(42).nextBytes(content);
+
+		file = Files.createTempFile("file-contents-benchmark", ".jar");
+
+		for (int written = 0; written < fileSize; written += content.length) {
+			Files.write(file, content, StandardOpenOption.APPEND);
+		}
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.getPgp().setKeyring(new ClassPathResource("private-key-D6C063D5.asc").getFile());
+		properties.getPgp().setKey("D6C063D5");
+		properties.getPgp().setPassphrase("something@example.com");
+
+		signer = new PgpSigner(properties);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public void digestBuffered(Blackhole blackhole) throws IOException {
+		blackhole.consume(MultiDigest.compute(file, BUFFERED, ChecksumAlgorithm.MD5, ChecksumAlgorithm.SHA1));
+	}
+
+	@Benchmark
+	public void digestMapped(Blackhole blackhole) throws IOException {
+		blackhole.consume(MultiDigest.compute(file, MAPPED, ChecksumAlgorithm.MD5, ChecksumAlgorithm.SHA1));
+	}
+
+	@Benchmark
+	public void sign(Blackhole blackhole) throws IOException, PGPException {
+
+		PGPSignatureGenerator generator = signer.createSignatureGenerator();
+		FileContents.read(file, (bytes, length) -> generator.update(bytes, 0, length));
+
+		blackhole.consume(generator.generate());
+	}
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link FileContents}.
+ *
+ * @author Mark Paluch
+ */
+class FileContentsUnitTests {
+
+	@Test
+	void shouldMapFilesAtThreshold(@TempDir Path tempDir) throws Exception {
+
+		byte[] content = new byte[FileContents.BUFFER_SIZE * 2 + 17];
+		new Random(42).nextBytes(content);
+		Path file = Files.write(tempDir.resolve("artifact.jar"), content);
+
+		List<Boolean> mapped = new ArrayList<>();
+		ByteArrayOutputStream read = new ByteArrayOutputStream();
+
+		FileContents.read(file, content.length, (Consumer<ByteBuffer>) buffer -> {
+
+			mapped.add(buffer instanceof MappedByteBuffer);
+
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			read.writeBytes(bytes);
+		});
+
+		assertThat(mapped).containsExactly(true);
+		assertThat(read.toByteArray()).isEqualTo(content);
+	}
+
+	@Test
+	void shouldReadIntoArrayWithoutMapping(@TempDir Path tempDir) throws Exception {
+
+		byte[] content = new byte[FileContents.BUFFER_SIZE * 2 + 17];
+		new Random(42).nextBytes(content);
+		Path file = Files.write(tempDir.resolve("artifact.jar"), content);
+
+		List<Integer> chunks = new ArrayList<>();
+		ByteArrayOutputStream read = new ByteArrayOutputStream();
+
+		FileContents.read(file, (bytes, length) -> {
+
+			chunks.add(length);
+			read.write(bytes, 0, length);
+		});
+
+		assertThat(chunks).allMatch(it -> it <= FileContents.BUFFER_SIZE);
+		assertThat(read.toByteArray()).isEqualTo(content);
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.netty.channel.Channel;
+import io.netty.handler.timeout.ReadTimeoutException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Unit tests for {@link HttpClientResources}.
+ *
+ * @author Mark Paluch
+ */
+class HttpClientResourcesUnitTests {
+
+	@Test
+	void shouldLimitConnectionsAndUseDedicatedEventLoop() {
+
+		Set<Channel> connections = ConcurrentHashMap.newKeySet();
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			request.withConnection(connection -> connections.add(connection.channel()));
+
+			return response.sendString(Mono.just("ok").delayElement(Duration.ofMillis(50)));
+		}).bindNow();
+
+		ArtifactPromoterProperties.Http properties = new ArtifactPromoterProperties.Http();
+		properties.setMaxConnections(2);
+		properties.setEventLoopThreads(1);
+
+		HttpClientResources resources = HttpClientResources.create("test-endpoint", properties);
+
+		try {
+
+			WebClient webClient = WebClient.builder().clientConnector(resources.getConnector()).build();
+
+			List<String> threads = Flux.range(0, 8)
+					.flatMap(i -> webClient.get().uri("http://localhost:" + server.port()).retrieve()
+							.bodyToMono(String.class).map(body -> Thread.currentThread().getName()))
+					.collectList().block(Duration.ofSeconds(10));
+
+			assertThat(threads).hasSize(8).allMatch(it -> it.startsWith("test-endpoint-http"));
+			assertThat(connections).hasSizeLessThanOrEqualTo(2);
+		} finally {
+			resources.destroy();
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldApplyResponseTimeoutOnNioTransport() {
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			Duration delay = request.uri().equals("/slow") ? Duration.ofSeconds(2) : Duration.ZERO;
+			return response.sendString(Mono.just("ok").delayElement(delay));
+		}).bindNow();
+
+		ArtifactPromoterProperties.Http properties = new ArtifactPromoterProperties.Http();
+		properties.setResponseTimeout(Duration.ofMillis(100));
+		properties.setPreferNative(false);
+
+		HttpClientResources resources = HttpClientResources.create("test-endpoint", properties);
+
+		try {
+
+			WebClient webClient = WebClient.builder().clientConnector(resources.getConnector()).build();
+
+			StepVerifier.create(webClient.get().uri("http://localhost:" + server.port() + "/slow").retrieve()
+					.bodyToMono(String.class)).verifyErrorSatisfies(e -> {
+
+						assertThat(AdaptiveConcurrencyLimiter.isDropped(e)).isTrue();
+						assertThat(e).hasRootCauseInstanceOf(ReadTimeoutException.class);
+					});
+
+			List<String> threads = Flux.range(0, 2)
+					.flatMap(i -> webClient.get().uri("http://localhost:" + server.port()).retrieve()
+							.bodyToMono(String.class).map(body -> Thread.currentThread().getName()))
+					.collectList().block(Duration.ofSeconds(10));
+
+			assertThat(threads).allMatch(it -> it.startsWith("test-endpoint-http-nio"));
+		} finally {
+			resources.destroy();
+			server.disposeNow();
+		}
+	}
+}
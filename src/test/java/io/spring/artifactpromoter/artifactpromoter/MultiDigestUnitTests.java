@@ -0,0 +1,97 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link MultiDigest}.
+ *
+ * @author Mark Paluch
+ */
+class MultiDigestUnitTests {
+
+	@Test
+	void shouldComputeAllChecksumsInSinglePass(@TempDir Path tempDir) throws Exception {
+
+		byte[] content = new byte[200 * 1024 + 17];
+		new Random(42).nextBytes(content);
+		Path file = Files.write(tempDir.resolve("artifact.jar"), content);
+
+		Checksums checksums = MultiDigest.compute(file, ChecksumAlgorithm.values());
+
+		assertThat(checksums.getMd5()).isEqualTo(DigestUtils.md5Hex(content));
+		assertThat(checksums.getSha1()).isEqualTo(DigestUtils.sha1Hex(content));
+		assertThat(checksums.getSha256()).isEqualTo(DigestUtils.sha256Hex(content));
+		assertThat(checksums.getSha512()).isEqualTo(DigestUtils.sha512Hex(content));
+	}
+
+	@Test
+	void shouldComputeChecksumsOfMappedFile(@TempDir Path tempDir) throws Exception {
+
+		byte[] content = new byte[200 * 1024 + 17];
+		new Random(42).nextBytes(content);
+		Path file = Files.write(tempDir.resolve("artifact.jar"), content);
+
+		Checksums checksums = MultiDigest.compute(file, 0, ChecksumAlgorithm.MD5, ChecksumAlgorithm.SHA1);
+
+		assertThat(checksums.getMd5()).isEqualTo(DigestUtils.md5Hex(content));
+		assertThat(checksums.getSha1()).isEqualTo(DigestUtils.sha1Hex(content));
+	}
+
+	@Test
+	void shouldComputeRequestedChecksumsOnly(@TempDir Path tempDir) throws Exception {
+
+		Path file = Files.write(tempDir.resolve("empty.pom"), new byte[0]);
+
+		Checksums checksums = MultiDigest.compute(file, ChecksumAlgorithm.SHA1);
+
+		assertThat(checksums.getSha1()).isEqualTo(DigestUtils.sha1Hex(new byte[0]));
+		assertThat(checksums.getMd5()).isNull();
+		assertThatIllegalStateException().isThrownBy(() -> checksums.getRequired(ChecksumAlgorithm.MD5));
+	}
+
+	@Test
+	void shouldDigestBuffersIncrementally() {
+
+		byte[] content = "hello-world".getBytes();
+		MultiDigest digest = MultiDigest.of(ChecksumAlgorithm.MD5, ChecksumAlgorithm.SHA1);
+
+		digest.update(ByteBuffer.wrap(content, 0, 5));
+		digest.update(content, 5, content.length - 5);
+
+		assertThat(digest.getBytes()).isEqualTo(content.length);
+
+		Checksums checksums = digest.digest();
+
+		assertThat(checksums.getMd5()).isEqualTo(DigestUtils.md5Hex(content));
+		assertThat(checksums.getSha1()).isEqualTo(DigestUtils.sha1Hex(content));
+	}
+
+	@Test
+	void shouldEncodeHex() {
+		assertThat(MultiDigest.encodeHex(new byte[] { 0, 15, 16, (byte) 0xAB, (byte) 0xFF })).isEqualTo("000f10abff");
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.bouncycastle.openpgp.PGPSecretKey;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Unit tests for {@link PgpSigner}.
+ *
+ * @author Mark Paluch
+ */
+class PgpSignerUnitTests {
+
+	@Test
+	void shouldLookUpSigningKeyByFingerprintSuffix() throws Exception {
+
+		PgpSigner.SecretKeyIndex index;
+		try (InputStream keyring = new ClassPathResource("private-key-D6C063D5.asc").getInputStream()) {
+			index = PgpSigner.SecretKeyIndex.of(keyring);
+		}
+
+		PGPSecretKey key = index.getRequiredSigningKey("D6C063D5");
+		String fingerprint = MultiDigest.encodeHex(key.getPublicKey().getFingerprint());
+
+		assertThat(index.getRequiredSigningKey(fingerprint.substring(fingerprint.length() - 16))).isSameAs(key);
+		assertThat(index.getRequiredSigningKey(fingerprint.toUpperCase())).isSameAs(key);
+		assertThat(index.getRequiredSigningKey(fingerprint.substring(fingerprint.length() - 12))).isSameAs(key);
+		assertThatIllegalArgumentException().isThrownBy(() -> index.getRequiredSigningKey("00000000"));
+	}
+
+	@Test
+	void shouldRejectAmbiguousFingerprintSuffix() throws Exception {
+
+		PgpSigner.SecretKeyIndex index;
+		try (InputStream keyring = new ClassPathResource("private-key-D6C063D5.asc").getInputStream()) {
+			index = PgpSigner.SecretKeyIndex.of(keyring);
+		}
+
+		// the key ring contains a signing key and a signing subkey
+		assertThatIllegalArgumentException().isThrownBy(() -> index.getRequiredSigningKey(""))
+				.withMessageContaining("ambiguous");
+	}
+
+	@Test
+	void shouldSignConcurrentlyWithSharedKey() throws Exception {
+
+		PgpSigner signer = createSigner("something@example.com");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<String>> signatures = new ArrayList<>();
+
+		try {
+			for (int i = 0; i < 16; i++) {
+
+				String message = "hello-world-" + i;
+				Callable<String> callable = () -> signer
+						.sign(new ByteArrayInputStream(message.getBytes(StandardCharsets.UTF_8)));
+				signatures.add(executor.submit(callable));
+			}
+
+			for (int i = 0; i < signatures.size(); i++) {
+				PgpClient.verifySignature("hello-world-" + i, signatures.get(i).get(),
+						new ClassPathResource("public-key-D6C063D5.asc").getInputStream());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	void wrongPassPhraseShouldFail() throws Exception {
+
+		PgpSigner signer = createSigner("wrong");
+
+		assertThatIllegalArgumentException().isThrownBy(
+				() -> signer.sign(new ByteArrayInputStream("hello-world".getBytes(StandardCharsets.UTF_8))));
+	}
+
+	private static PgpSigner createSigner(String passphrase) throws Exception {
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.getPgp().setKeyring(new ClassPathResource("private-key-D6C063D5.asc").getFile());
+		properties.getPgp().setKey("D6C063D5");
+		properties.getPgp().setPassphrase(passphrase);
+
+		return new PgpSigner(properties);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.spring.artifactpromoter.artifactpromoter.nexus.NexusClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Unit tests for {@link PromotionOperations}.
+ *
+ * @author Mark Paluch
+ */
+class PromotionOperationsUnitTests {
+
+	static final String START_PATH = "/service/local/staging/profiles/%s/start";
+	static final String FINISH_PATH = "/service/local/staging/profiles/%s/finish";
+
+	@Test
+	void shouldStageModulesPerStagingProfileConcurrently() {
+
+		Set<String> closed = ConcurrentHashMap.newKeySet();
+		DisposableServer server = createServer(closed);
+
+		Modules modules = Modules.of(List.of(Module.of(GAVC.of("com.example:module-a:1.0"), List.of()),
+				Module.of(GAVC.of("org.other:module-b:1.0"), List.of()),
+				Module.of(GAVC.of("com.example:module-c:1.0"), List.of())));
+		Map<String, List<String>> uploads = new ConcurrentHashMap<>();
+		Sinks.One<Void> otherStarted = Sinks.one();
+
+		try {
+
+			ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+			properties.getNexus().setAddress("http://localhost:" + server.port());
+			properties.getNexus().setUsername("user");
+			properties.getNexus().setPassword("password");
+			NexusClient client = new NexusClient(properties);
+			PromotionOperations operations = new PromotionOperations(null, null, null, null, client, null);
+
+			try {
+
+				Mono<Void> stage = operations.stage(modules, true, (repositoryId, group) -> {
+
+					uploads.put(repositoryId.getRepositoryId(), group.getModules().stream()
+							.map(it -> it.getId().getArtifactId()).collect(Collectors.toList()));
+
+					// the example group completes only once the other group has started
+					if (repositoryId.getRepositoryId().equals("repo-other")) {
+						otherStarted.tryEmitEmpty();
+						return Mono.empty();
+					}
+
+					return otherStarted.asMono();
+				});
+
+				StepVerifier.create(stage).expectComplete().verify(Duration.ofSeconds(10));
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(uploads).containsOnly(entry("repo-example", List.of("module-a", "module-c")),
+					entry("repo-other", List.of("module-b")));
+			assertThat(closed).containsOnly("repo-example", "repo-other");
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldRejectRelayModeWithSignatureVerification() {
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.getRelay().setEnabled(true);
+		properties.getPgp().setVerifySignatures(true);
+		SignatureVerifier verifier = new SignatureVerifier(properties);
+
+		try {
+
+			PromotionOperations operations = new PromotionOperations(null, null, null, verifier, null,
+					new ArtifactRelay(properties, null, null));
+
+			assertThatIllegalStateException().isThrownBy(() -> operations.promote("build", 1))
+					.withMessageContaining("Relay mode cannot verify signatures");
+		} finally {
+			verifier.destroy();
+		}
+	}
+
+	private static DisposableServer createServer(Set<String> closed) {
+
+		return HttpServer.create().port(0).handle((request, response) -> {
+
+			response.header(HttpHeaders.CONTENT_TYPE, "application/json");
+
+			if (request.uri().equals("/service/local/staging/profiles")) {
+				return response.sendString(Mono.just("{\"data\":[{\"id\":\"example\",\"repositoryTargetId\":\"t1\"},"
+						+ "{\"id\":\"other\",\"repositoryTargetId\":\"t2\"}]}"));
+			}
+
+			if (request.uri().equals("/service/local/repo_targets")) {
+				return response.sendString(Mono.just("{\"data\":[{\"id\":\"t1\",\"patterns\":[\"^/com/example/.*\"]},"
+						+ "{\"id\":\"t2\",\"patterns\":[\"^/org/other/.*\"]}]}"));
+			}
+
+			for (String profile : List.of("example", "other")) {
+
+				if (request.uri().equals(String.format(START_PATH, profile))) {
+					String body = "{\"data\":{\"stagedRepositoryId\":\"repo-" + profile + "\"}}";
+					return request.receive().then(response.sendString(Mono.just(body)).then());
+				}
+
+				if (request.uri().equals(String.format(FINISH_PATH, profile))) {
+					return request.receive().aggregate().asString().flatMap(body -> {
+
+						closed.add(body.replaceAll(".*\"stagedRepositoryId\":\"([^\"]+)\".*", "$1"));
+						return response.sendString(Mono.just("{}")).then();
+					});
+				}
+			}
+
+			return response.status(404).send();
+		}).bindNow();
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.spring.artifactpromoter.artifactpromoter.artifactory.ArtifactoryBuild;
+import reactor.test.StepVerifier;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Unit tests for {@link SignatureVerifier}.
+ *
+ * @author Mark Paluch
+ */
+class SignatureVerifierUnitTests {
+
+	ArtifactoryBuild build = ArtifactoryBuild.of("my-build", 1);
+
+	@Test
+	void shouldVerifySignatures(@TempDir File workingDirectory) throws Exception {
+
+		ArtifactPromoterProperties properties = createProperties(workingDirectory);
+		properties.getPgp().setPublicKeyring(new ClassPathResource("public-key-D6C063D5.asc").getFile());
+		Modules modules = prepareWorkspace(properties, "module-1.0.jar", "module-1.0.pom");
+
+		SignatureVerifier verifier = new SignatureVerifier(properties);
+
+		try {
+			StepVerifier.create(verifier.verifySignatures(modules, build)).verifyComplete();
+		} finally {
+			verifier.destroy();
+		}
+	}
+
+	@Test
+	void shouldReportInvalidAndMissingSignatures(@TempDir File workingDirectory) throws Exception {
+
+		ArtifactPromoterProperties properties = createProperties(workingDirectory);
+		Modules modules = prepareWorkspace(properties, "module-1.0.jar", "module-1.0.pom", "module-1.0-sources.jar");
+		File moduleDirectory = WorkspaceUtils.getModuleDirectory(
+				WorkspaceUtils.getContextDirectory(workingDirectory, build), modules.getModules().get(0));
+
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.pom"), "tampered", StandardCharsets.UTF_8);
+		FileUtils.forceDelete(new File(moduleDirectory, "module-1.0-sources.jar.asc"));
+
+		SignatureVerifier verifier = new SignatureVerifier(properties);
+
+		try {
+
+			Map<String, SignatureVerification> results = verifier.verify(modules, build).collectList().block().stream()
+					.collect(Collectors.toMap(it -> it.getFile().getName(), Function.identity()));
+
+			assertThat(results.get("module-1.0.jar").isValid()).isTrue();
+			assertThat(results.get("module-1.0.pom").getFailure()).isEqualTo("Signature invalid");
+			assertThat(results.get("module-1.0-sources.jar").getFailure()).isEqualTo("Signature does not exist");
+
+			StepVerifier.create(verifier.verifySignatures(modules, build)).consumeErrorWith(e -> {
+				assertThat(e).isInstanceOf(SignatureVerificationException.class);
+				assertThat(((SignatureVerificationException) e).getFailures()).hasSize(2);
+			}).verify();
+		} finally {
+			verifier.destroy();
+		}
+	}
+
+	private Modules prepareWorkspace(ArtifactPromoterProperties properties, String... artifactNames) throws Exception {
+
+		List<Artifact> artifacts = List.of(artifactNames).stream()
+				.map(name -> ArtifactSignerUnitTests.artifact(name, ArtifactType.JAR)).collect(Collectors.toList());
+		Module module = Module.of(GAVC.of("com.example:module:1.0"), artifacts);
+		File moduleDirectory = WorkspaceUtils.getModuleDirectory(
+				WorkspaceUtils.getContextDirectory(properties.getWorkingDirectory(), build), module);
+		PgpSigner signer = new PgpSigner(properties);
+
+		for (String name : artifactNames) {
+
+			File file = new File(moduleDirectory, name);
+			FileUtils.writeStringToFile(file, name, StandardCharsets.UTF_8);
+
+			try (InputStream message = new FileInputStream(file)) {
+				FileUtils.writeStringToFile(new File(moduleDirectory, name + ".asc"), signer.sign(message),
+						StandardCharsets.US_ASCII);
+			}
+		}
+
+		return Modules.of(List.of(module));
+	}
+
+	private static ArtifactPromoterProperties createProperties(File workingDirectory) throws Exception {
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.setWorkingDirectory(workingDirectory);
+		properties.getPgp().setKeyring(new ClassPathResource("private-key-D6C063D5.asc").getFile());
+		properties.getPgp().setKey("D6C063D5");
+		properties.getPgp().setPassphrase("something@example.com");
+
+		return properties;
+	}
+}
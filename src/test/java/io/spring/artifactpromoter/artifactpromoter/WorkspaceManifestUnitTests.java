@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for {@link WorkspaceManifest}.
+ *
+ * @author Mark Paluch
+ */
+class WorkspaceManifestUnitTests {
+
+	String sha1 = DigestUtils.sha1Hex("hello-world");
+
+	@Test
+	void shouldRestoreRecordedFiles(@TempDir File directory) throws Exception {
+
+		File file = new File(directory, "com/example/module/1.0/module-1.0.jar");
+		FileUtils.writeStringToFile(file, "hello-world", StandardCharsets.US_ASCII);
+
+		WorkspaceManifest.create(directory).record(file, sha1);
+
+		WorkspaceManifest manifest = WorkspaceManifest.load(directory);
+
+		assertThat(manifest.isCurrent(file, sha1)).isTrue();
+		assertThat(manifest.isCurrent(file, DigestUtils.sha1Hex("other"))).isFalse();
+		assertThat(manifest.isCurrent(new File(directory, "other.jar"), sha1)).isFalse();
+	}
+
+	@Test
+	void shouldDetectChangedFiles(@TempDir File directory) throws Exception {
+
+		File file = new File(directory, "module-1.0.jar");
+		FileUtils.writeStringToFile(file, "hello-world", StandardCharsets.US_ASCII);
+
+		WorkspaceManifest.create(directory).record(file, sha1);
+		FileUtils.writeStringToFile(file, "hello-world!", StandardCharsets.US_ASCII);
+
+		assertThat(WorkspaceManifest.load(directory).isCurrent(file, sha1)).isFalse();
+	}
+
+	@Test
+	void createShouldDiscardExistingManifest(@TempDir File directory) throws Exception {
+
+		File file = new File(directory, "module-1.0.jar");
+		FileUtils.writeStringToFile(file, "hello-world", StandardCharsets.US_ASCII);
+
+		WorkspaceManifest.create(directory).record(file, sha1);
+		WorkspaceManifest.create(directory);
+
+		assertThat(WorkspaceManifest.load(directory).isCurrent(file, sha1)).isFalse();
+	}
+}
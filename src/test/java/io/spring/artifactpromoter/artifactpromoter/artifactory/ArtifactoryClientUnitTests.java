@@ -17,18 +17,52 @@ package io.spring.artifactpromoter.artifactpromoter.artifactory;
 
 import static org.assertj.core.api.Assertions.*;
 
+import io.spring.artifactpromoter.artifactpromoter.Artifact;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactCache;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactPromoterProperties;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactSigner;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactType;
 import io.spring.artifactpromoter.artifactpromoter.GAVC;
+import io.spring.artifactpromoter.artifactpromoter.MavenRepositoryPath;
 import io.spring.artifactpromoter.artifactpromoter.Module;
 import io.spring.artifactpromoter.artifactpromoter.Modules;
+import io.spring.artifactpromoter.artifactpromoter.PgpClient;
+import io.spring.artifactpromoter.artifactpromoter.PgpSigner;
+import io.spring.artifactpromoter.artifactpromoter.WorkspaceUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.test.StepVerifier;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
-import org.jfrog.build.api.Build;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Publisher;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Unit tests for {@link ArtifactoryClient}.
@@ -227,11 +261,9 @@ class ArtifactoryClientUnitTests {
 	@Test
 	void shouldCreateModules() throws Exception {
 
-		ObjectMapper mapper = new ObjectMapper();
+		List<BuildInfoModule> buildInfo = BuildInfoParser.parse(toDataBuffers(buildInfoJson, 4096)).collectList().block();
 
-		Build buildInfo = mapper.readValue(buildInfoJson, BuildInfoRepresentation.class).getBuildInfo();
-
-		List<DownloadUri> downloadUris = Arrays.stream(downloadURIs).map(DownloadUri::new).collect(Collectors.toList());
+		List<DownloadUri> downloadUris = toDownloadUris(downloadURIs);
 
 		Modules modules = DownloadableBuild.from(buildInfo, downloadUris).toModules(s -> !s.contains("-original.jar"));
 
@@ -240,5 +272,601 @@ class ArtifactoryClientUnitTests {
 		Module module = modules.getModules().get(0);
 		assertThat(module.getId()).isEqualTo(GAVC.of("io.projectreactor.netty:reactor-netty-core:1.0.4-SNAPSHOT"));
 		assertThat(module.getArtifacts()).hasSize(4);
+		assertThat(module.getArtifacts()).extracting(Artifact::getBinaryDownloadUri).containsExactly(
+				"/io/projectreactor/netty/reactor-netty-core/1.0.4-SNAPSHOT/reactor-netty-core-1.0.4-20210205.081845-33-javadoc.jar",
+				"/io/projectreactor/netty/reactor-netty-core/1.0.4-SNAPSHOT/reactor-netty-core-1.0.4-20210205.081845-33-sources.jar",
+				"/io/projectreactor/netty/reactor-netty-core/1.0.4-SNAPSHOT/reactor-netty-core-1.0.4-20210205.081845-33.jar",
+				"/io/projectreactor/netty/reactor-netty-core/1.0.4-SNAPSHOT/reactor-netty-core-1.0.4-20210205.081845-33.pom");
+	}
+
+	@Test
+	void shouldParseBuildInfoFromChunkedStream() {
+
+		String json = buildInfoJson.replace("\"excludedArtifacts\"",
+				"\"dependencies\": [{\"id\": \"io.netty:netty-codec:4.1.58\", \"type\": \"jar\", \"sha1\": \"x\"}], \"excludedArtifacts\"");
+
+		StepVerifier.create(BuildInfoParser.parse(toDataBuffers(json, 7))) //
+				.assertNext(module -> {
+
+					assertThat(module.getId()).isEqualTo("io.projectreactor.netty:reactor-netty-core:1.0.4-SNAPSHOT");
+					assertThat(module.getArtifacts()).hasSize(5);
+
+					BuildInfoArtifact artifact = module.getArtifacts().get(0);
+					assertThat(artifact.getName()).isEqualTo("reactor-netty-core-1.0.4-SNAPSHOT-javadoc.jar");
+					assertThat(artifact.getType()).isEqualTo("javadoc-jar");
+					assertThat(artifact.getSha1()).isEqualTo("9395c3ebb4da770888a66b65460c889a27978880");
+					assertThat(artifact.getMd5()).isEqualTo("9259598dcfad971a1bd77ff9bc90c090");
+					assertThat(artifact.getSha256())
+							.isEqualTo("76c7f4b9344ef3f85aa2cb51b42b9d485486be71c637a121f3c1d15c609a198b");
+				}) //
+				.assertNext(module -> assertThat(module.getArtifacts()).hasSize(4)) //
+				.assertNext(module -> assertThat(module.getArtifacts()).hasSize(4)) //
+				.verifyComplete();
+	}
+
+	@Test
+	void shouldRejectIncompleteBuildInfo() {
+
+		String truncated = buildInfoJson.substring(0, buildInfoJson.indexOf("reactor-netty-http-brave:"));
+
+		StepVerifier.create(BuildInfoParser.parse(toDataBuffers(truncated, 512))).expectNextCount(1)
+				.verifyError(IllegalStateException.class);
+	}
+
+	@Test
+	void shouldParseBuildArtifactsFromChunkedStream() {
+
+		String json = "{\"downloadUris\": [{\"downloadUri\": \"https://repo/com/example/module/1.0/module-1.0.jar\"},"
+				+ "{\"downloadUri\": \"https://repo/com/example/module/1.0/module-1.0.pom\","
+				+ " \"other\": {\"downloadUri\": \"x\"}}],"
+				+ "\"downloadUri\": \"y\"}";
+
+		StepVerifier.create(BuildArtifactsParser.parse(toDataBuffers(json, 7)).map(DownloadUri::getDownloadUri))
+				.expectNext("https://repo/com/example/module/1.0/module-1.0.jar",
+						"https://repo/com/example/module/1.0/module-1.0.pom")
+				.verifyComplete();
+
+		StepVerifier.create(BuildArtifactsParser.parse(toDataBuffers(json.substring(0, 40), 7)))
+				.verifyError(IllegalStateException.class);
+	}
+
+	@Test
+	void shouldParseDownloadUris() {
+
+		MavenRepositoryPath parser = new MavenRepositoryPath();
+
+		for (String downloadUri : downloadURIs) {
+
+			assertThat(parser.parse(downloadUri)).isTrue();
+			assertThat(parser.getGroupPath()).isEqualTo("/io/projectreactor/netty");
+			assertThat(parser.getArtifactId()).startsWith("reactor-netty");
+			assertThat(parser.getBaseVersion()).isEqualTo("1.0.4-SNAPSHOT");
+			assertThat(parser.getVersion()).isEqualTo("1.0.4-20210205.081845-33");
+			assertThat(parser.isTimestamped()).isTrue();
+			assertThat(downloadUri).endsWith(parser.hasClassifier() ? "-" + parser.getClassifier() + "." + parser.getExtension()
+					: "33." + parser.getExtension());
+		}
+
+		assertThat(parser.parse(downloadURIs[0])).isTrue();
+		assertThat(parser.getClassifier()).isEqualTo("docs");
+		assertThat(parser.getExtension()).isEqualTo("zip");
+		assertThat(ArtifactType.of("zip").matches(parser)).isFalse();
+
+		assertThat(parser.parse(downloadURIs[3])).isTrue();
+		assertThat(ArtifactType.JAVADOC_JAR.matches(parser)).isTrue();
+		assertThat(ArtifactType.JAR.matches(parser)).isFalse();
+
+		assertThat(parser.parseFilename("reactor-netty-1.0.4-SNAPSHOT.jar", "reactor-netty", "1.0.4-SNAPSHOT")).isTrue();
+		assertThat(parser.isTimestamped()).isFalse();
+		assertThat(ArtifactType.JAR.matches(parser)).isTrue();
+
+		assertThat(parser.parse("/io/projectreactor/netty/reactor-netty/maven-metadata.xml")).isFalse();
+		assertThat(parser.parse("/reactor-netty-1.0.4.jar")).isFalse();
+	}
+
+	@Test
+	void shouldRejectAmbiguousDownloadUris() {
+
+		DownloadUriIndex index = DownloadUriIndex.of(Arrays.asList(
+				new DownloadUri("/com/example/module/1.0-SNAPSHOT/module-1.0-20210205.081845-1.jar"),
+				new DownloadUri("/com/example/module/1.0-SNAPSHOT/module-1.0-20210205.091845-2.jar")));
+
+		assertThatIllegalStateException()
+				.isThrownBy(() -> index.getRequiredDownloadUri(GAVC.of("com.example:module:1.0-SNAPSHOT"),
+						"module-1.0-SNAPSHOT.jar", ArtifactType.JAR))
+				.withMessageContaining("Ambiguous");
+	}
+
+	@Test
+	void shouldRejectMissingDownloadUris() {
+
+		DownloadUriIndex index = DownloadUriIndex
+				.of(Arrays.asList(new DownloadUri("/com/example/module/1.0/module-1.0-sources.jar"),
+						new DownloadUri("/com/other/module/1.0/module-1.0.jar")));
+
+		assertThatIllegalStateException().isThrownBy(
+				() -> index.getRequiredDownloadUri(GAVC.of("com.example:module:1.0"), "module-1.0.jar", ArtifactType.JAR))
+				.withMessageContaining("Cannot find Download URI");
+	}
+
+	@Test
+	void shouldVerifyChecksums(@TempDir File workingDirectory) throws Exception {
+
+		Modules modules = prepareWorkspace(workingDirectory, "hello-world");
+
+		StepVerifier.create(createClient(workingDirectory).verifyChecksums(modules, ArtifactoryBuild.of("build", 1)))
+				.verifyComplete();
+	}
+
+	@Test
+	void checksumVerificationShouldReportMismatches(@TempDir File workingDirectory) throws Exception {
+
+		Modules modules = prepareWorkspace(workingDirectory, "tampered");
+
+		StepVerifier.create(createClient(workingDirectory).verifyChecksums(modules, ArtifactoryBuild.of("build", 1)))
+				.consumeErrorWith(e -> {
+					assertThat(e).isInstanceOf(ChecksumVerificationException.class);
+					assertThat(((ChecksumVerificationException) e).getFailures())
+							.containsOnly("SHA1 checksum verification failed for module-1.0.jar");
+				}).verify();
+	}
+
+	@Test
+	void shouldSignArtifactsWhileDownloading(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = "hello-world".getBytes(StandardCharsets.US_ASCII);
+		Map<String, byte[]> files = Map.of("/module-1.0.jar", content, //
+				"/module-1.0.jar.sha1", DigestUtils.sha1Hex(content).getBytes(StandardCharsets.US_ASCII), //
+				"/module-1.0.jar.md5", DigestUtils.md5Hex(content).getBytes(StandardCharsets.US_ASCII));
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			byte[] body = files.get(request.uri());
+			return body == null ? response.status(404).send() : response.sendByteArray(Mono.just(body));
+		}).bindNow();
+
+		try {
+
+			String uri = "http://localhost:" + server.port() + "/module-1.0.jar";
+			Artifact artifact = new Artifact("module-1.0.jar", DigestUtils.sha1Hex(content), DigestUtils.md5Hex(content),
+					uri, ArtifactType.JAR, null);
+			Module module = Module.of(GAVC.of("com.example:module:1.0"), List.of(artifact));
+			Modules modules = Modules.of(List.of(module));
+			ArtifactoryBuild build = ArtifactoryBuild.of("build", 1);
+
+			ArtifactPromoterProperties properties = createProperties(workingDirectory);
+			properties.getPgp().setSignOnDownload(true);
+			properties.getPgp().setKeyring(new ClassPathResource("private-key-D6C063D5.asc").getFile());
+			properties.getPgp().setKey("D6C063D5");
+			properties.getPgp().setPassphrase("something@example.com");
+
+			ArtifactSigner signer = new ArtifactSigner(properties, new PgpSigner(properties));
+			ArtifactoryClient client = new ArtifactoryClient(properties, signer, new ArtifactCache(properties));
+			client.prepareDirectories(modules, build);
+
+			StepVerifier.create(client.download(modules, build)).verifyComplete();
+
+			File moduleDirectory = WorkspaceUtils
+					.getModuleDirectory(WorkspaceUtils.getContextDirectory(workingDirectory, build), module);
+
+			try (InputStream message = new FileInputStream(new File(moduleDirectory, "module-1.0.jar"));
+					InputStream signature = new FileInputStream(new File(moduleDirectory, "module-1.0.jar.asc"));
+					InputStream keyring = new ClassPathResource("public-key-D6C063D5.asc").getInputStream()) {
+				PgpClient.verifySignature(message, signature, keyring);
+			}
+
+			assertThat(signer.getMetrics().getSignatures()).isOne();
+			assertThat(signer.getMetrics().getBytesHashed()).isEqualTo(content.length);
+			assertThat(signer.getMetrics().getBytesHashedPerSecond()).isPositive();
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldFlushModuleAndRecordDownloadMetrics(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = new byte[64 * 1024];
+		new Random(42).nextBytes(content);
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			if (!request.uri().equals("/module-1.0.jar")) {
+				return sendChecksum(request.uri(), content, response);
+			}
+
+			return response.sendByteArray(Mono.just(content));
+		}).bindNow();
+
+		try {
+
+			String uri = "http://localhost:" + server.port() + "/module-1.0.jar";
+			Artifact artifact = new Artifact("module-1.0.jar", DigestUtils.sha1Hex(content), DigestUtils.md5Hex(content),
+					uri, ArtifactType.JAR, null);
+			Modules modules = Modules.of(List.of(Module.of(GAVC.of("com.example:module:1.0"), List.of(artifact))));
+			ArtifactoryBuild build = ArtifactoryBuild.of("build", 1);
+
+			ArtifactPromoterProperties properties = createProperties(workingDirectory);
+			properties.getArtifactory().setFsync(ArtifactPromoterProperties.FsyncPolicy.MODULE);
+
+			ArtifactoryClient client = new ArtifactoryClient(properties,
+					new ArtifactSigner(properties, new PgpSigner(properties)), new ArtifactCache(properties));
+
+			try {
+
+				client.prepareDirectories(modules, build);
+				StepVerifier.create(client.download(modules, build)).verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			DownloadMetrics metrics = client.getMetrics();
+
+			assertThat(metrics.getFiles()).isEqualTo(3);
+			assertThat(metrics.getBytesWritten()).isEqualTo(content.length + 40 + 32);
+			assertThat(metrics.getBuffers()).isGreaterThanOrEqualTo(3);
+			assertThat(metrics.getWrites()).isGreaterThanOrEqualTo(3);
+			assertThat(metrics.getMaxWriteLatency(TimeUnit.NANOSECONDS)).isPositive();
+			assertThat(metrics.getThroughput()).isPositive();
+			assertThat(metrics.getSyncs()).isOne();
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldResumeDroppedDownloads(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = new byte[64 * 1024];
+		new Random(42).nextBytes(content);
+		List<String> ranges = new CopyOnWriteArrayList<>();
+		AtomicInteger requests = new AtomicInteger();
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			if (!request.uri().equals("/module-1.0.jar")) {
+				return sendChecksum(request.uri(), content, response);
+			}
+
+			if (requests.getAndIncrement() == 0) {
+
+				return response.header(HttpHeaders.CONTENT_LENGTH, Integer.toString(content.length))
+						.sendByteArray(Mono.just(Arrays.copyOf(content, content.length / 2))).then()
+						.then(Mono.fromRunnable(() -> response.withConnection(Connection::dispose)));
+			}
+
+			String range = request.requestHeaders().get(HttpHeaders.RANGE);
+			ranges.add(range);
+			int offset = Integer.parseInt(range.substring("bytes=".length(), range.length() - 1));
+
+			return response.status(206)
+					.header(HttpHeaders.CONTENT_RANGE,
+							String.format("bytes %d-%d/%d", offset, content.length - 1, content.length))
+					.sendByteArray(Mono.just(Arrays.copyOfRange(content, offset, content.length)));
+		}).bindNow();
+
+		try {
+
+			File file = downloadModule(workingDirectory, server, content);
+
+			assertThat(FileUtils.readFileToByteArray(file)).isEqualTo(content);
+			assertThat(requests).hasValue(2);
+			assertThat(ranges).containsExactly("bytes=" + (content.length / 2) + "-");
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldDownloadArtifactAgainOnChecksumMismatch(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = "hello-world".getBytes(StandardCharsets.US_ASCII);
+		AtomicInteger requests = new AtomicInteger();
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			if (!request.uri().equals("/module-1.0.jar")) {
+				return sendChecksum(request.uri(), content, response);
+			}
+
+			byte[] body = requests.getAndIncrement() == 0 ? "hello-wOrld".getBytes(StandardCharsets.US_ASCII) : content;
+			return response.sendByteArray(Mono.just(body));
+		}).bindNow();
+
+		try {
+
+			File file = downloadModule(workingDirectory, server, content);
+
+			assertThat(FileUtils.readFileToByteArray(file)).isEqualTo(content);
+			assertThat(requests).hasValue(2);
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldRejectCorruptedDownload(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = "hello-world".getBytes(StandardCharsets.US_ASCII);
+		AtomicInteger requests = new AtomicInteger();
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			if (!request.uri().equals("/module-1.0.jar")) {
+				return sendChecksum(request.uri(), content, response);
+			}
+
+			requests.incrementAndGet();
+			return response.sendByteArray(Mono.just("hello-wOrld".getBytes(StandardCharsets.US_ASCII)));
+		}).bindNow();
+
+		try {
+
+			String uri = "http://localhost:" + server.port() + "/module-1.0.jar";
+			Artifact artifact = new Artifact("module-1.0.jar", DigestUtils.sha1Hex(content), DigestUtils.md5Hex(content),
+					uri, ArtifactType.JAR, null);
+			Modules modules = Modules.of(List.of(Module.of(GAVC.of("com.example:module:1.0"), List.of(artifact))));
+			ArtifactoryBuild build = ArtifactoryBuild.of("build", 1);
+			ArtifactoryClient client = createClient(workingDirectory);
+
+			try {
+
+				client.prepareDirectories(modules, build);
+				StepVerifier.create(client.download(modules, build)).verifyErrorSatisfies(e -> assertThat(e)
+						.isInstanceOf(ChecksumVerificationException.class).hasMessageContaining("module-1.0.jar"));
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(requests).hasValue(2);
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldLinkCachedArtifacts(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = "hello-world".getBytes(StandardCharsets.US_ASCII);
+		AtomicInteger requests = new AtomicInteger();
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			if (!request.uri().equals("/module-1.0.jar")) {
+				return sendChecksum(request.uri(), content, response);
+			}
+
+			requests.incrementAndGet();
+			return response.sendByteArray(Mono.just(content));
+		}).bindNow();
+
+		try {
+
+			ArtifactPromoterProperties properties = createProperties(new File(workingDirectory, "first"));
+			properties.getCache().setDirectory(new File(workingDirectory, "cache"));
+			ArtifactCache cache = new ArtifactCache(properties);
+
+			File first = downloadModule(properties, cache, server, content);
+			properties.setWorkingDirectory(new File(workingDirectory, "second"));
+			File second = downloadModule(properties, cache, server, content);
+
+			assertThat(FileUtils.readFileToByteArray(second)).isEqualTo(content);
+			assertThat(second).isNotEqualTo(first);
+			assertThat(requests).hasValue(1);
+			assertThat(cache.getHits()).isOne();
+			assertThat(cache.getMisses()).isOne();
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldEvictCorruptCachedArtifacts(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = "hello-world".getBytes(StandardCharsets.US_ASCII);
+		AtomicInteger requests = new AtomicInteger();
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			if (!request.uri().equals("/module-1.0.jar")) {
+				return sendChecksum(request.uri(), content, response);
+			}
+
+			requests.incrementAndGet();
+			return response.sendByteArray(Mono.just(content));
+		}).bindNow();
+
+		try {
+
+			ArtifactPromoterProperties properties = createProperties(new File(workingDirectory, "first"));
+			properties.getCache().setDirectory(new File(workingDirectory, "cache"));
+			ArtifactCache cache = new ArtifactCache(properties);
+			String sha1 = DigestUtils.sha1Hex(content);
+			File cached = new File(workingDirectory, "cache/" + sha1.substring(0, 2) + "/" + sha1);
+
+			downloadModule(properties, cache, server, content);
+			FileUtils.writeStringToFile(cached, "hello-wOrld", StandardCharsets.US_ASCII);
+
+			properties.setWorkingDirectory(new File(workingDirectory, "second"));
+			File second = downloadModule(properties, cache, server, content);
+
+			assertThat(FileUtils.readFileToByteArray(second)).isEqualTo(content);
+			assertThat(FileUtils.readFileToByteArray(cached)).isEqualTo(content);
+			assertThat(requests).hasValue(2);
+			assertThat(cache.getHits()).isOne();
+			assertThat(cache.getEvictions()).isOne();
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldNotDownloadChecksumFilesWhenGeneratingThem(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = "hello-world".getBytes(StandardCharsets.US_ASCII);
+		List<String> requests = new CopyOnWriteArrayList<>();
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			requests.add(request.uri());
+			return request.uri().equals("/module-1.0.jar") ? response.sendByteArray(Mono.just(content))
+					: response.status(404).send();
+		}).bindNow();
+
+		try {
+
+			ArtifactPromoterProperties properties = createProperties(workingDirectory);
+			properties.getArtifactory().setGenerateChecksumFiles(true);
+
+			File file = downloadModule(properties, new ArtifactCache(properties), server, content);
+
+			assertThat(requests).containsExactly("/module-1.0.jar");
+			assertThat(file).hasBinaryContent(content);
+			assertThat(new File(file.getParentFile(), "module-1.0.jar.sha1")).doesNotExist();
+			assertThat(new File(file.getParentFile(), "module-1.0.jar.md5")).doesNotExist();
+
+			properties.getArtifactory().setResume(true);
+			downloadModule(properties, new ArtifactCache(properties), server, content);
+
+			assertThat(requests).containsExactly("/module-1.0.jar");
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldKeepVerifiedArtifactsWhenResuming(@TempDir File workingDirectory) throws Exception {
+
+		byte[] content = "hello-world".getBytes(StandardCharsets.US_ASCII);
+		AtomicInteger requests = new AtomicInteger();
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			if (!request.uri().equals("/module-1.0.jar")) {
+				return sendChecksum(request.uri(), content, response);
+			}
+
+			requests.incrementAndGet();
+			return response.sendByteArray(Mono.just(content));
+		}).bindNow();
+
+		try {
+
+			ArtifactPromoterProperties properties = createProperties(workingDirectory);
+			ArtifactCache cache = new ArtifactCache(properties);
+
+			File file = downloadModule(properties, cache, server, content);
+			properties.getArtifactory().setResume(true);
+			downloadModule(properties, cache, server, content);
+
+			assertThat(requests).hasValue(1);
+
+			FileUtils.writeStringToFile(file, "tampered", StandardCharsets.US_ASCII);
+			downloadModule(properties, cache, server, content);
+
+			assertThat(requests).hasValue(2);
+			assertThat(FileUtils.readFileToByteArray(file)).isEqualTo(content);
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	private static File downloadModule(File workingDirectory, DisposableServer server, byte[] content)
+			throws IOException {
+
+		ArtifactPromoterProperties properties = createProperties(workingDirectory);
+		properties.getArtifactory().setResumeThreshold(DataSize.ofBytes(1));
+		properties.getArtifactory().getHttp().setMinBackoff(Duration.ofMillis(10));
+
+		return downloadModule(properties, new ArtifactCache(properties), server, content);
+	}
+
+	private static File downloadModule(ArtifactPromoterProperties properties, ArtifactCache cache,
+			DisposableServer server, byte[] content) throws IOException {
+
+		String uri = "http://localhost:" + server.port() + "/module-1.0.jar";
+		Artifact artifact = new Artifact("module-1.0.jar", DigestUtils.sha1Hex(content), DigestUtils.md5Hex(content),
+				uri, ArtifactType.JAR, null);
+		Module module = Module.of(GAVC.of("com.example:module:1.0"), List.of(artifact));
+		Modules modules = Modules.of(List.of(module));
+		ArtifactoryBuild build = ArtifactoryBuild.of("build", 1);
+
+		ArtifactoryClient client = new ArtifactoryClient(properties,
+				new ArtifactSigner(properties, new PgpSigner(properties)), cache);
+
+		try {
+
+			client.prepareDirectories(modules, build);
+			StepVerifier.create(client.download(modules, build)).verifyComplete();
+		} finally {
+			client.destroy();
+		}
+
+		return new File(WorkspaceUtils.getModuleDirectory(
+				WorkspaceUtils.getContextDirectory(properties.getWorkingDirectory(), build), module), "module-1.0.jar");
+	}
+
+	private static Publisher<Void> sendChecksum(String uri, byte[] content, HttpServerResponse response) {
+
+		if (uri.endsWith(".sha1")) {
+			return response.sendString(Mono.just(DigestUtils.sha1Hex(content)));
+		}
+
+		if (uri.endsWith(".md5")) {
+			return response.sendString(Mono.just(DigestUtils.md5Hex(content)));
+		}
+
+		return response.status(404).send();
+	}
+
+	private static Flux<DataBuffer> toDataBuffers(String json, int chunkSize) {
+
+		byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+
+		return Flux.range(0, (bytes.length + chunkSize - 1) / chunkSize).map(chunk -> {
+
+			int offset = chunk * chunkSize;
+			return DefaultDataBufferFactory.sharedInstance.wrap(
+					Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + chunkSize)));
+		});
+	}
+
+	static List<DownloadUri> toDownloadUris(String... downloadUris) {
+		return Arrays.stream(downloadUris).map(DownloadUri::new).collect(Collectors.toList());
+	}
+
+	private static Modules prepareWorkspace(File workingDirectory, String content) throws IOException {
+
+		String sha1 = DigestUtils.sha1Hex("hello-world");
+		String md5 = DigestUtils.md5Hex("hello-world");
+
+		Artifact artifact = new Artifact("module-1.0.jar", sha1, md5, "/module-1.0.jar", ArtifactType.JAR, null);
+		Module module = Module.of(GAVC.of("com.example:module:1.0"), List.of(artifact));
+		File moduleDirectory = WorkspaceUtils
+				.getModuleDirectory(WorkspaceUtils.getContextDirectory(workingDirectory, ArtifactoryBuild.of("build", 1)), module);
+
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.jar"), content, StandardCharsets.US_ASCII);
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.jar.sha1"), sha1, StandardCharsets.US_ASCII);
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.jar.md5"), md5, StandardCharsets.US_ASCII);
+
+		return Modules.of(List.of(module));
+	}
+
+	private static ArtifactoryClient createClient(File workingDirectory) {
+
+		ArtifactPromoterProperties properties = createProperties(workingDirectory);
+
+		return new ArtifactoryClient(properties, new ArtifactSigner(properties, new PgpSigner(properties)),
+				new ArtifactCache(properties));
+	}
+
+	private static ArtifactPromoterProperties createProperties(File workingDirectory) {
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.setWorkingDirectory(workingDirectory);
+		properties.getArtifactory().setUsername("user");
+		properties.getArtifactory().setPassword("password");
+
+		return properties;
 	}
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.artifactory;
+
+import io.spring.artifactpromoter.artifactpromoter.ArtifactType;
+import io.spring.artifactpromoter.artifactpromoter.GAVC;
+import io.spring.artifactpromoter.artifactpromoter.MavenRepositoryPath;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for matching download URIs using the data set of {@link ArtifactoryClientUnitTests}. Compares
+ * string-based suffix matching against {@link MavenRepositoryPath} parsing. Run with
+ * {@code org.openjdk.jmh.Main DownloadUriBenchmarks} from the test classpath.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DownloadUriBenchmarks {
+
+	final String[] downloadUris = new ArtifactoryClientUnitTests().downloadURIs;
+
+	final GAVC gavc = GAVC.of("io.projectreactor.netty:reactor-netty-core:1.0.4-SNAPSHOT");
+
+	final List<ArtifactType> types = List.of(ArtifactType.JAR, ArtifactType.POM, ArtifactType.JAVADOC_JAR,
+			ArtifactType.SOURCES_JAR);
+
+	final MavenRepositoryPath parser = new MavenRepositoryPath();
+
+	@Benchmark
+	public void stringMatching(Blackhole blackhole) {
+
+		for (String downloadUri : downloadUris) {
+			for (ArtifactType type : types) {
+				blackhole.consume(stringMatches(downloadUri, gavc, type.getCanonicalName()));
+			}
+		}
+	}
+
+	@Benchmark
+	public void parserMatching(Blackhole blackhole) {
+
+		for (String downloadUri : downloadUris) {
+
+			boolean parsed = parser.parse(downloadUri);
+
+			for (ArtifactType type : types) {
+				blackhole.consume(parsed && parser.artifactIdEquals(gavc.getArtifactId()) && type.matches(parser));
+			}
+		}
+	}
+
+	@Benchmark
+	public void indexLookup(Blackhole blackhole) {
+
+		DownloadUriIndex index = DownloadUriIndex.of(ArtifactoryClientUnitTests.toDownloadUris(downloadUris));
+
+		for (ArtifactType type : types) {
+
+			String name = "reactor-netty-core-1.0.4-SNAPSHOT"
+					+ (type.getClassifier() != null ? "-" + type.getClassifier() : "") + "." + type.getExtension();
+			blackhole.consume(index.getRequiredDownloadUri(gavc, name, type));
+		}
+	}
+
+	/**
+	 * String-based matching as previously used by {@code DownloadUri.matches(…)}.
+	 */
+	private static boolean stringMatches(String downloadUri, GAVC gavc, String type) {
+
+		if (!downloadUri.contains(gavc.toString(true, "/"))) {
+			return false;
+		}
+
+		String filename = downloadUri.toLowerCase(Locale.ROOT);
+
+		if (type.equals("jar")) {
+			for (String classifier : List.of("javadoc-jar", "sources-jar", "original-jar")) {
+				if (filename.endsWith("-" + classifier.replace('-', '.'))) {
+					return false;
+				}
+			}
+		}
+
+		if (type.contains("-")) {
+			return filename.endsWith("-" + type.replace('-', '.'));
+		}
+
+		return filename.endsWith("." + type);
+	}
+}
@@ -0,0 +1,547 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.nexus;
+
+import static org.assertj.core.api.Assertions.*;
+
+import io.spring.artifactpromoter.artifactpromoter.Artifact;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactPromoterProperties;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactType;
+import io.spring.artifactpromoter.artifactpromoter.GAVC;
+import io.spring.artifactpromoter.artifactpromoter.Module;
+import io.spring.artifactpromoter.artifactpromoter.Modules;
+import io.spring.artifactpromoter.artifactpromoter.WorkspaceUtils;
+import io.spring.artifactpromoter.artifactpromoter.artifactory.ArtifactoryBuild;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Publisher;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Unit tests for {@link NexusClient}.
+ *
+ * @author Mark Paluch
+ */
+class NexusClientUnitTests {
+
+	static final String CONTENT_PATH = "/service/local/repositories/repo-1/content/com/example/module/1.0/";
+	static final String DEPLOY_PATH = "/service/local/staging/deployByRepositoryId/repo-1/com/example/module/1.0/";
+	static final String BUNDLE_UPLOAD_PATH = "/service/local/staging/bundle_upload";
+	static final String PROFILES_PATH = "/service/local/staging/profiles";
+	static final String TARGETS_PATH = "/service/local/repo_targets";
+	static final String EVALUATE_PATH = "/service/local/staging/profile_evaluate";
+	static final String BUNDLE_RESPONSE = "{\"repositoryUris\":[\"http://localhost/content/repositories/repo-1\"]}";
+
+	ArtifactoryBuild build = ArtifactoryBuild.of("build", 1);
+
+	@Test
+	void shouldUploadOnlyMissingOrDifferentFiles(@TempDir File workingDirectory) throws Exception {
+
+		Modules modules = prepareWorkspace(workingDirectory, "hello-world");
+		Map<String, byte[]> remoteFiles = new ConcurrentHashMap<>();
+		remoteFiles.put("module-1.0.jar", "hello-world".getBytes(StandardCharsets.US_ASCII));
+		remoteFiles.put("module-1.0.jar.sha1", "outdated".getBytes(StandardCharsets.US_ASCII));
+		remoteFiles.put("module-1.0.jar.md5", DigestUtils.md5Hex("hello-world").getBytes(StandardCharsets.US_ASCII));
+		Map<String, String> uploads = new ConcurrentHashMap<>();
+
+		DisposableServer server = createServer(remoteFiles, uploads);
+
+		try {
+
+			NexusClient client = new NexusClient(createProperties(workingDirectory, server, true));
+
+			try {
+				StepVerifier.create(client.upload(StagingRepository.of("repo-1"), modules, build)).verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(uploads).containsOnlyKeys("module-1.0.jar.asc", "module-1.0.jar.sha1");
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldUploadAllFilesByDefault(@TempDir File workingDirectory) throws Exception {
+
+		Modules modules = prepareWorkspace(workingDirectory, "hello-world");
+		Map<String, String> uploads = new ConcurrentHashMap<>();
+
+		DisposableServer server = createServer(new ConcurrentHashMap<>(), uploads);
+
+		try {
+
+			NexusClient client = new NexusClient(createProperties(workingDirectory, server, false));
+
+			try {
+				StepVerifier.create(client.upload(StagingRepository.of("repo-1"), modules, build)).verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(uploads).containsOnlyKeys("module-1.0.jar", "module-1.0.jar.asc", "module-1.0.jar.md5",
+					"module-1.0.jar.sha1");
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldUploadChecksumsFromMemory(@TempDir File workingDirectory) throws Exception {
+
+		Modules modules = prepareWorkspace(workingDirectory, "hello-world");
+		File moduleDirectory = WorkspaceUtils.getModuleDirectory(
+				WorkspaceUtils.getContextDirectory(workingDirectory, build), modules.getModules().get(0));
+		FileUtils.forceDelete(new File(moduleDirectory, "module-1.0.jar.md5"));
+		FileUtils.forceDelete(new File(moduleDirectory, "module-1.0.jar.sha1"));
+		Map<String, String> uploads = new ConcurrentHashMap<>();
+
+		DisposableServer server = createServer(new ConcurrentHashMap<>(), uploads);
+
+		try {
+
+			NexusClient client = new NexusClient(createProperties(workingDirectory, server, false));
+
+			try {
+				StepVerifier.create(client.upload(StagingRepository.of("repo-1"), modules, build)).verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(uploads).containsEntry("module-1.0.jar", "hello-world")
+					.containsEntry("module-1.0.jar.asc", "signature")
+					.containsEntry("module-1.0.jar.md5", DigestUtils.md5Hex("hello-world"))
+					.containsEntry("module-1.0.jar.sha1", DigestUtils.sha1Hex("hello-world"));
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldUploadLargeFileAsFileRegion(@TempDir File workingDirectory) throws Exception {
+
+		String content = new Random(42).ints(UploadPayload.IN_MEMORY_THRESHOLD * 4 + 17, 'a', 'z' + 1)
+				.collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append).toString();
+		Modules modules = prepareWorkspace(workingDirectory, content);
+		Map<String, String> uploads = new ConcurrentHashMap<>();
+
+		DisposableServer server = createServer(new ConcurrentHashMap<>(), uploads);
+
+		try {
+
+			NexusClient client = new NexusClient(createProperties(workingDirectory, server, false));
+
+			try {
+				StepVerifier.create(client.upload(StagingRepository.of("repo-1"), modules, build)).verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(uploads.get("module-1.0.jar")).isEqualTo(content);
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldUploadSingleComponentBundle(@TempDir File workingDirectory) throws Exception {
+
+		String content = new Random(42).ints(UploadPayload.IN_MEMORY_THRESHOLD * 8 + 17, 'a', 'z' + 1)
+				.collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append).toString();
+		Module module = preparePom(workingDirectory, prepareWorkspace(workingDirectory, content).getModules().get(0));
+		Map<String, String> uploads = new ConcurrentHashMap<>();
+		AtomicInteger requests = new AtomicInteger();
+
+		DisposableServer server = HttpServer.create().port(0).handle((request, response) -> {
+
+			if (!request.uri().equals(BUNDLE_UPLOAD_PATH)) {
+				return response.status(404).send();
+			}
+
+			return request.receive().aggregate().asByteArray().flatMap(body -> {
+
+				// the first attempt is throttled and retried with the complete archive
+				if (requests.incrementAndGet() == 1) {
+					return response.status(503).send().then();
+				}
+
+				try {
+					readBundle(body, uploads);
+				} catch (IOException e) {
+					return Mono.error(e);
+				}
+
+				return response.status(201).header(HttpHeaders.CONTENT_TYPE, "application/json")
+						.sendString(Mono.just(BUNDLE_RESPONSE)).then();
+			});
+		}).bindNow();
+
+		try {
+
+			ArtifactPromoterProperties properties = createProperties(workingDirectory, server, false);
+			properties.getNexus().getHttp().setMinBackoff(Duration.ofMillis(10));
+			NexusClient client = new NexusClient(properties);
+
+			try {
+				StepVerifier.create(client.uploadBundle(module, build)).expectNext(StagingRepository.of("repo-1"))
+						.verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(requests).hasValue(2);
+			assertThat(uploads).containsOnlyKeys("module-1.0.pom", "module-1.0.pom.asc", "module-1.0.jar",
+					"module-1.0.jar.asc");
+			assertThat(uploads).containsEntry("module-1.0.jar", content).containsEntry("module-1.0.pom", "<project/>");
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldRejectBundleWithoutPom(@TempDir File workingDirectory) throws Exception {
+
+		Module module = prepareWorkspace(workingDirectory, "hello-world").getModules().get(0);
+		Map<String, String> uploads = new ConcurrentHashMap<>();
+		DisposableServer server = createServer(new ConcurrentHashMap<>(), uploads);
+
+		try {
+
+			NexusClient client = new NexusClient(createProperties(workingDirectory, server, false));
+
+			try {
+				StepVerifier.create(client.uploadBundle(module, build)).verifyError(StagingException.class);
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(uploads).isEmpty();
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldSelectStagingProfilesLocally() {
+
+		Map<String, Integer> requests = new ConcurrentHashMap<>();
+		DisposableServer server = createProfileServer(requests, true);
+
+		try {
+
+			NexusClient client = new NexusClient(createProperties(new File("."), server, false));
+
+			try {
+
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("com.example:module:1.0")))
+						.expectNext(StagingProfile.of("example")).verifyComplete();
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("com.example.sub:other:1.0")))
+						.expectNext(StagingProfile.of("example")).verifyComplete();
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("org.other:module:1.0")))
+						.expectNext(StagingProfile.of("other")).verifyComplete();
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("com.example:module:1.0")))
+						.expectNext(StagingProfile.of("example")).verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(requests).containsOnly(entry(PROFILES_PATH, 1), entry(TARGETS_PATH, 1));
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldEvaluateStagingProfileRemotelyIfTargetsAreNotReadable() {
+
+		Map<String, Integer> requests = new ConcurrentHashMap<>();
+		DisposableServer server = createProfileServer(requests, false);
+
+		try {
+
+			NexusClient client = new NexusClient(createProperties(new File("."), server, false));
+
+			try {
+
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("com.example:module:1.0")))
+						.expectNext(StagingProfile.of("evaluated")).verifyComplete();
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("com.example:module:1.0")))
+						.expectNext(StagingProfile.of("evaluated")).verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(requests).containsEntry(EVALUATE_PATH + "?a=module&t=maven2&g=com.example&v=1.0", 1);
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldEvaluateStagingProfileRemotelyIfTargetsCannotBeFetched() {
+
+		Map<String, Integer> requests = new ConcurrentHashMap<>();
+		DisposableServer server = createProfileServer(requests,
+				response -> Mono.fromRunnable(() -> response.withConnection(Connection::dispose)));
+
+		try {
+
+			NexusClient client = new NexusClient(createProperties(new File("."), server, false));
+
+			try {
+
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("com.example:module:1.0")))
+						.expectNext(StagingProfile.of("evaluated")).verifyComplete();
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("org.other:module:1.0")))
+						.expectNext(StagingProfile.of("evaluated")).verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			// transport errors are not cached
+			assertThat(requests).containsEntry(TARGETS_PATH, 2);
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldEvaluateStagingProfileRemotelyIfArtifactsMatchDifferentProfiles() {
+
+		Map<String, Integer> requests = new ConcurrentHashMap<>();
+		DisposableServer server = createProfileServer(requests, true);
+
+		try {
+
+			NexusClient client = new NexusClient(createProperties(new File("."), server, false));
+
+			try {
+
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("org.foo:module:1.0")))
+						.expectNext(StagingProfile.of("evaluated")).verifyComplete();
+				StepVerifier.create(client.selectStagingProfile(GAVC.of("org.foo:other:1.0")))
+						.expectNext(StagingProfile.of("evaluated")).verifyComplete();
+			} finally {
+				client.destroy();
+			}
+
+			assertThat(requests).containsEntry(EVALUATE_PATH + "?a=module&t=maven2&g=org.foo&v=1.0", 1)
+					.containsEntry(EVALUATE_PATH + "?a=other&t=maven2&g=org.foo&v=1.0", 1);
+		} finally {
+			server.disposeNow();
+		}
+	}
+
+	@Test
+	void shouldExtractRepositoryId() {
+
+		assertThat(NexusClient.getRepositoryId("https://oss.sonatype.org/content/repositories/orgexample-1001"))
+				.isEqualTo("orgexample-1001");
+		assertThat(NexusClient.getRepositoryId("https://oss.sonatype.org/content/repositories/orgexample-1001/"))
+				.isEqualTo("orgexample-1001");
+	}
+
+	@Test
+	void shouldSizeBuffersByFileSize() {
+
+		assertThat(UploadPayload.getBufferSize(100)).isEqualTo(UploadPayload.MIN_BUFFER_SIZE);
+		assertThat(UploadPayload.getBufferSize(100 * 1024)).isEqualTo(128 * 1024);
+		assertThat(UploadPayload.getBufferSize(128 * 1024)).isEqualTo(128 * 1024);
+		assertThat(UploadPayload.getBufferSize(1L << 32)).isEqualTo(UploadPayload.MAX_BUFFER_SIZE);
+	}
+
+	@Test
+	void shouldExtractSha1FromHeaders() {
+
+		HttpHeaders nexus = new HttpHeaders();
+		nexus.setETag("\"{SHA1{2e4a55a9c266f7c3dbd5d0d8d621a59d2b637342}}\"");
+
+		HttpHeaders checksumHeader = new HttpHeaders();
+		checksumHeader.set("X-Checksum-Sha1", "2e4a55a9c266f7c3dbd5d0d8d621a59d2b637342");
+
+		HttpHeaders plainEtag = new HttpHeaders();
+		plainEtag.setETag("\"abc\"");
+
+		assertThat(NexusClient.getSha1(nexus)).isEqualTo("2e4a55a9c266f7c3dbd5d0d8d621a59d2b637342");
+		assertThat(NexusClient.getSha1(checksumHeader)).isEqualTo("2e4a55a9c266f7c3dbd5d0d8d621a59d2b637342");
+		assertThat(NexusClient.getSha1(plainEtag)).isNull();
+		assertThat(NexusClient.getSha1(new HttpHeaders())).isNull();
+	}
+
+	private static DisposableServer createServer(Map<String, byte[]> remoteFiles, Map<String, String> uploads) {
+
+		return HttpServer.create().port(0).handle((request, response) -> {
+
+			if (request.uri().startsWith(CONTENT_PATH)) {
+
+				byte[] content = remoteFiles.get(request.uri().substring(CONTENT_PATH.length()));
+
+				if (content == null) {
+					return response.status(404).send();
+				}
+
+				return response.header(HttpHeaders.CONTENT_LENGTH, Integer.toString(content.length))
+						.header(HttpHeaders.ETAG, "\"{SHA1{" + DigestUtils.sha1Hex(content) + "}}\"").send();
+			}
+
+			if (request.uri().startsWith(DEPLOY_PATH)) {
+
+				return request.receive().aggregate().asString().defaultIfEmpty("").flatMap(body -> {
+
+					uploads.put(request.uri().substring(DEPLOY_PATH.length()), body);
+					return response.status(201).send().then();
+				});
+			}
+
+			return response.status(404).send();
+		}).bindNow();
+	}
+
+	private static DisposableServer createProfileServer(Map<String, Integer> requests, boolean targetsReadable) {
+
+		return createProfileServer(requests, response -> {
+
+			if (!targetsReadable) {
+				return response.status(403).send();
+			}
+
+			return response.sendString(Mono.just("{\"data\":[{\"id\":\"t1\",\"patterns\":[\"^/com/example/.*\"]},"
+					+ "{\"id\":\"t2\",\"patterns\":[\".*/org/other/.*\"]},"
+					+ "{\"id\":\"t3\",\"patterns\":[\".*/org/foo/.*\\\\.jar\"]}]}"));
+		});
+	}
+
+	private static DisposableServer createProfileServer(Map<String, Integer> requests,
+			Function<HttpServerResponse, Publisher<Void>> targets) {
+
+		return HttpServer.create().port(0).handle((request, response) -> {
+
+			requests.merge(request.uri(), 1, Integer::sum);
+			response.header(HttpHeaders.CONTENT_TYPE, "application/json");
+
+			if (request.uri().equals(PROFILES_PATH)) {
+				return response.sendString(Mono.just("{\"data\":[{\"id\":\"example\",\"repositoryTargetId\":\"t1\"},"
+						+ "{\"id\":\"other\",\"repositoryTargetId\":\"t2\"},"
+						+ "{\"id\":\"foo-jars\",\"repositoryTargetId\":\"t3\"}]}"));
+			}
+
+			if (request.uri().equals(TARGETS_PATH)) {
+				return targets.apply(response);
+			}
+
+			if (request.uri().startsWith(EVALUATE_PATH)) {
+				return response.sendString(Mono.just("{\"data\":[{\"id\":\"evaluated\"}]}"));
+			}
+
+			return response.status(404).send();
+		}).bindNow();
+	}
+
+	/**
+	 * Read the zip archive from a multipart request body.
+	 */
+	private static void readBundle(byte[] body, Map<String, String> uploads) throws IOException {
+
+		int offset = 0;
+		while (!(body[offset] == 'P' && body[offset + 1] == 'K' && body[offset + 2] == 3 && body[offset + 3] == 4)) {
+			offset++;
+		}
+
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(body, offset, body.length - offset))) {
+
+			ZipEntry entry;
+			while ((entry = zip.getNextEntry()) != null) {
+				uploads.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.US_ASCII));
+			}
+		}
+	}
+
+	private Modules prepareWorkspace(File workingDirectory, String content) throws Exception {
+
+		Artifact artifact = new Artifact("module-1.0.jar", DigestUtils.sha1Hex(content), DigestUtils.md5Hex(content),
+				"/module-1.0.jar", ArtifactType.JAR, null);
+		Module module = Module.of(GAVC.of("com.example:module:1.0"), List.of(artifact));
+		File moduleDirectory = WorkspaceUtils
+				.getModuleDirectory(WorkspaceUtils.getContextDirectory(workingDirectory, build), module);
+
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.jar"), content, StandardCharsets.US_ASCII);
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.jar.asc"), "signature",
+				StandardCharsets.US_ASCII);
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.jar.sha1"), DigestUtils.sha1Hex(content),
+				StandardCharsets.US_ASCII);
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.jar.md5"), DigestUtils.md5Hex(content),
+				StandardCharsets.US_ASCII);
+
+		return Modules.of(List.of(module));
+	}
+
+	private Module preparePom(File workingDirectory, Module module) throws Exception {
+
+		String pom = "<project/>";
+		Artifact artifact = new Artifact("module-1.0.pom", DigestUtils.sha1Hex(pom), DigestUtils.md5Hex(pom),
+				"/module-1.0.pom", ArtifactType.POM, null);
+		File moduleDirectory = WorkspaceUtils
+				.getModuleDirectory(WorkspaceUtils.getContextDirectory(workingDirectory, build), module);
+
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.pom"), pom, StandardCharsets.US_ASCII);
+		FileUtils.writeStringToFile(new File(moduleDirectory, "module-1.0.pom.asc"), "signature",
+				StandardCharsets.US_ASCII);
+
+		List<Artifact> artifacts = new ArrayList<>(module.getArtifacts());
+		artifacts.add(0, artifact);
+
+		return Module.of(module.getId(), artifacts);
+	}
+
+	private static ArtifactPromoterProperties createProperties(File workingDirectory, DisposableServer server,
+			boolean incrementalUpload) {
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.setWorkingDirectory(workingDirectory);
+		properties.getNexus().setAddress("http://localhost:" + server.port());
+		properties.getNexus().setUsername("user");
+		properties.getNexus().setPassword("password");
+		properties.getNexus().setIncrementalUpload(incrementalUpload);
+
+		return properties;
+	}
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.nexus;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link StagingProfileCache}.
+ *
+ * @author Mark Paluch
+ */
+class StagingProfileCacheUnitTests {
+
+	MutableClock clock = new MutableClock();
+
+	@Test
+	void shouldExpireEntries() {
+
+		StagingProfileCache cache = new StagingProfileCache(Duration.ofMinutes(1), clock);
+
+		cache.put("com.example:module:1.0", StagingProfile.of("example"));
+
+		clock.advance(Duration.ofSeconds(59));
+		assertThat(cache.get("com.example:module:1.0")).isEqualTo(StagingProfile.of("example"));
+		assertThat(cache.get("com.example:other:1.0")).isNull();
+
+		clock.advance(Duration.ofSeconds(1));
+		assertThat(cache.get("com.example:module:1.0")).isNull();
+	}
+
+	static class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2021-01-01T00:00:00Z");
+
+		void advance(Duration duration) {
+			instant = instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.spring.artifactpromoter.artifactpromoter.nexus;
+
+import io.spring.artifactpromoter.artifactpromoter.Artifact;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactPromoterProperties;
+import io.spring.artifactpromoter.artifactpromoter.ArtifactType;
+import io.spring.artifactpromoter.artifactpromoter.GAVC;
+import io.spring.artifactpromoter.artifactpromoter.Module;
+import io.spring.artifactpromoter.artifactpromoter.Modules;
+import io.spring.artifactpromoter.artifactpromoter.WorkspaceUtils;
+import io.spring.artifactpromoter.artifactpromoter.artifactory.ArtifactoryBuild;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Benchmarks comparing the wall-clock time of uploading a build with one request per file against one bundle upload
+ * per module to a local stub Nexus that adds {@code latency} milliseconds of processing time to each request. Run with
+ * {@code org.openjdk.jmh.Main UploadModeBenchmarks} from the test classpath.
+ *
+ * @author Mark Paluch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class UploadModeBenchmarks {
+
+	@Param({ "0", "20" })
+	int latency;
+
+	@Param({ "10", "100" })
+	int moduleCount;
+
+	@Param({ "16384" })
+	int fileSize;
+
+	ArtifactoryBuild build = ArtifactoryBuild.of("build", 1);
+
+	File workingDirectory;
+
+	DisposableServer server;
+
+	NexusClient client;
+
+	Modules modules;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+
+		workingDirectory = Files.createTempDirectory("upload-mode-benchmark").toFile();
+
+		byte[] content = new byte[fileSize];
+		new Random(42).nextBytes(content);
+
+		List<Module> modules = new ArrayList<>();
+
+		for (int i = 0; i < moduleCount; i++) {
+
+			String name = "module-" + i + "-1.0.jar";
+			String pomName = "module-" + i + "-1.0.pom";
+			Artifact artifact = new Artifact(name, DigestUtils.sha1Hex(content), DigestUtils.md5Hex(content),
+					"/" + name, ArtifactType.JAR, null);
+			Artifact pom = new Artifact(pomName, DigestUtils.sha1Hex("<project/>"), DigestUtils.md5Hex("<project/>"),
+					"/" + pomName, ArtifactType.POM, null);
+			Module module = Module.of(GAVC.of("com.example:module-" + i + ":1.0"), List.of(pom, artifact));
+			File moduleDirectory = WorkspaceUtils
+					.getModuleDirectory(WorkspaceUtils.getContextDirectory(workingDirectory, build), module);
+
+			FileUtils.writeByteArrayToFile(new File(moduleDirectory, name), content);
+			FileUtils.writeStringToFile(new File(moduleDirectory, name + ".asc"), "signature", "US-ASCII");
+			FileUtils.writeStringToFile(new File(moduleDirectory, pomName), "<project/>", "US-ASCII");
+			FileUtils.writeStringToFile(new File(moduleDirectory, pomName + ".asc"), "signature", "US-ASCII");
+			modules.add(module);
+		}
+
+		this.modules = Modules.of(modules);
+
+		Duration delay = Duration.ofMillis(latency);
+		server = HttpServer.create().port(0).handle((request, response) -> {
+
+			Mono<Void> body = request.receive().then().delayElement(delay);
+
+			if (request.uri().endsWith("/bundle_upload")) {
+				return body.then(response.header(HttpHeaders.CONTENT_TYPE, "application/json")
+						.sendString(Mono.just(NexusClientUnitTests.BUNDLE_RESPONSE))
+						.then());
+			}
+
+			return body.then(response.status(201).send());
+		}).bindNow();
+
+		ArtifactPromoterProperties properties = new ArtifactPromoterProperties();
+		properties.setWorkingDirectory(workingDirectory);
+		properties.getNexus().setAddress("http://localhost:" + server.port());
+		properties.getNexus().setUsername("user");
+		properties.getNexus().setPassword("password");
+
+		client = new NexusClient(properties);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+
+		client.destroy();
+		server.disposeNow();
+		FileUtils.deleteDirectory(workingDirectory);
+	}
+
+	@Benchmark
+	public void perFile() {
+		client.upload(StagingRepository.of("repo-1"), modules, build).block();
+	}
+
+	@Benchmark
+	public Object bundle() {
+		return Flux.fromIterable(modules.getModules()).flatMap(module -> client.uploadBundle(module, build))
+				.collectList().block();
+	}
+}